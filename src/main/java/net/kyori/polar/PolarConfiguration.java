@@ -23,6 +23,7 @@
  */
 package net.kyori.polar;
 
+import java.time.Duration;
 import java.util.Set;
 import net.kyori.polar.gateway.GatewayIntent;
 import org.checkerframework.checker.index.qual.NonNegative;
@@ -48,6 +49,81 @@ public interface PolarConfiguration {
     return 1;
   }
 
+  /**
+   * Gets the expected member count at and above which a guild keeps its members
+   * in a compact, columnar store rather than as individual objects.
+   *
+   * @return the member count
+   */
+  default @NonNegative int compactMemberThreshold() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Gets the member count at and above which a guild or member payload is
+   * materialized in parallel.
+   *
+   * @return the member count
+   */
+  default @NonNegative int parallelMemberThreshold() {
+    return 1000;
+  }
+
+  /**
+   * Gets if guilds keep an index from each role to the members holding it.
+   *
+   * @return {@code true} if guilds keep a role index
+   */
+  default boolean roleIndex() {
+    return false;
+  }
+
+  /**
+   * Gets if guilds keep a prefix search index over member usernames and nicks.
+   *
+   * @return {@code true} if guilds keep a member search index
+   */
+  default boolean memberSearchIndex() {
+    return false;
+  }
+
+  /**
+   * Gets if guilds keep a word index over the content of their cached messages.
+   *
+   * @return {@code true} if guilds keep a message search index
+   */
+  default boolean messageSearchIndex() {
+    return false;
+  }
+
+  /**
+   * Gets the maximum number of rate limited http requests sent per second, across every bucket.
+   *
+   * @return the requests per second, or {@code 0} for no ceiling
+   */
+  default @NonNegative int globalRequestsPerSecond() {
+    return 50;
+  }
+
+  /**
+   * Gets the maximum number of times a rate limited http request is retried after a server error or
+   * an I/O failure. Only idempotent requests are retried.
+   *
+   * @return the maximum number of retries
+   */
+  default @NonNegative int httpMaxRetries() {
+    return 3;
+  }
+
+  /**
+   * Gets the base delay before retrying a failed http request, doubled with each attempt.
+   *
+   * @return the base delay
+   */
+  default @NonNull Duration httpRetryDelay() {
+    return Duration.ofMillis(250);
+  }
+
   default @NonNull Set<GatewayIntent> intents() {
     return GatewayIntent.defaults();
   }
@@ -0,0 +1,113 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar;
+
+import com.google.gson.Gson;
+import com.google.inject.Injector;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.kyori.polar.client.ClientImpl;
+import net.kyori.polar.http.RateLimitedHttpClient;
+import net.kyori.polar.refresh.Refresher;
+import net.kyori.polar.util.StringPool;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * The services shared by every entity of a client.
+ *
+ * <p>Entities reach the context through their guild or channel rather than
+ * holding references to each service themselves.</p>
+ */
+@Singleton
+public final class PolarContext {
+  private final Injector injector;
+  private final PolarConfiguration configuration;
+  private final ExecutorService executor;
+  private final RateLimitedHttpClient httpClient;
+  private final Gson gson;
+  private final ClientImpl client;
+  private final StringPool strings;
+  private final Map<Class<?>, Refresher<?, ?>> refreshers = new ConcurrentHashMap<>();
+
+  @Inject
+  private PolarContext(final Injector injector, final PolarConfiguration configuration, final ExecutorService executor, final RateLimitedHttpClient httpClient, final @ForPolar Gson gson, final ClientImpl client, final StringPool strings) {
+    this.injector = injector;
+    this.configuration = configuration;
+    this.executor = executor;
+    this.httpClient = httpClient;
+    this.gson = gson;
+    this.client = client;
+    this.strings = strings;
+  }
+
+  public @NonNull PolarConfiguration configuration() {
+    return this.configuration;
+  }
+
+  public @NonNull ExecutorService executor() {
+    return this.executor;
+  }
+
+  public @NonNull RateLimitedHttpClient httpClient() {
+    return this.httpClient;
+  }
+
+  public @NonNull Gson gson() {
+    return this.gson;
+  }
+
+  public @NonNull ClientImpl client() {
+    return this.client;
+  }
+
+  public @NonNull StringPool strings() {
+    return this.strings;
+  }
+
+  /**
+   * Gets a refresher.
+   *
+   * @param type the refresher type
+   * @param <R> the refresher type
+   * @return the refresher
+   */
+  public <R extends Refresher<?, ?>> @NonNull R refresher(final @NonNull Class<R> type) {
+    return type.cast(this.refreshers.computeIfAbsent(type, key -> (Refresher<?, ?>) this.injector.getInstance(key)));
+  }
+
+  /**
+   * Something with access to a {@link PolarContext}.
+   */
+  public interface Holder {
+    /**
+     * Gets the context.
+     *
+     * @return the context
+     */
+    @NonNull PolarContext context();
+  }
+}
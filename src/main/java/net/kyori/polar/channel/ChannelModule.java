@@ -29,6 +29,6 @@ public final class ChannelModule extends AbstractModule {
   @Override
   protected void configure() {
     this.installFactory(PrivateChannelImpl.Factory.class);
-    this.installFactory(TextChannelImpl.Factory.class);
+    this.bind(TextChannelImpl.Factory.class).to(TextChannelImpl.FactoryImpl.class);
   }
 }
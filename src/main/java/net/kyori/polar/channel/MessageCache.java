@@ -0,0 +1,185 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import net.kyori.kassel.channel.message.Message;
+import net.kyori.kassel.snowflake.Snowflake;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A bounded cache of messages, kept sorted by snowflake id in a ring buffer.
+ *
+ * <p>Since snowflakes are time-ordered, the oldest message is evicted once the
+ * cache is full, and range queries by id or time are a binary search away.</p>
+ */
+final class MessageCache {
+  private final LongConsumer evicted;
+  private final long[] ids;
+  private final Message[] messages;
+  private int head; // slot of the oldest message
+  private int size;
+
+  MessageCache(final int capacity, final @NonNull LongConsumer evicted) {
+    checkState(capacity > 0, "capacity <= 0");
+    this.evicted = evicted;
+    this.ids = new long[capacity];
+    this.messages = new Message[capacity];
+  }
+
+  synchronized @Nullable Message get(final @Snowflake long id) {
+    final int index = this.search(id);
+    return index >= 0 ? this.messages[this.slot(index)] : null;
+  }
+
+  /**
+   * Stores a message, evicting the oldest if the cache is full.
+   *
+   * @param id the message's snowflake id
+   * @param message the message
+   * @return {@code true} if the message was stored, {@code false} if it is older than everything in a full cache
+   */
+  synchronized boolean put(final @Snowflake long id, final @NonNull Message message) {
+    int index = this.search(id);
+    if(index >= 0) {
+      this.messages[this.slot(index)] = message;
+      return true;
+    }
+    index = -index - 1;
+    if(this.size == this.ids.length) {
+      if(index == 0) {
+        return false; // older than everything we hold
+      }
+      this.evicted.accept(this.ids[this.head]);
+      this.messages[this.head] = null;
+      this.head = this.slot(1);
+      this.size--;
+      index--;
+    }
+    for(int i = this.size; i > index; i--) {
+      this.move(this.slot(i - 1), this.slot(i));
+    }
+    final int slot = this.slot(index);
+    this.ids[slot] = id;
+    this.messages[slot] = message;
+    this.size++;
+    return true;
+  }
+
+  synchronized @Nullable Message remove(final @Snowflake long id) {
+    final int index = this.search(id);
+    if(index < 0) {
+      return null;
+    }
+    final Message removed = this.messages[this.slot(index)];
+    for(int i = index; i < this.size - 1; i++) {
+      this.move(this.slot(i + 1), this.slot(i));
+    }
+    this.size--;
+    this.messages[this.slot(this.size)] = null;
+    return removed;
+  }
+
+  /**
+   * Removes every message, as if each had been evicted.
+   */
+  synchronized void clear() {
+    for(int i = 0; i < this.size; i++) {
+      final int slot = this.slot(i);
+      this.evicted.accept(this.ids[slot]);
+      this.messages[slot] = null;
+    }
+    this.head = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Gets the messages with an id above {@code id}, oldest first.
+   *
+   * @param id the exclusive lower bound
+   * @return the messages
+   */
+  synchronized @NonNull List<Message> after(final @Snowflake long id) {
+    int index = this.search(id);
+    index = index >= 0 ? index + 1 : -index - 1;
+    final List<Message> messages = new ArrayList<>(this.size - index);
+    for(int i = index; i < this.size; i++) {
+      messages.add(this.messages[this.slot(i)]);
+    }
+    return messages;
+  }
+
+  /**
+   * Gets up to {@code limit} of the newest messages matching {@code filter}, newest first.
+   *
+   * @param filter the filter
+   * @param limit the maximum number of messages
+   * @return the messages
+   */
+  synchronized @NonNull List<Message> latest(final @NonNull Predicate<Message> filter, final int limit) {
+    checkArgument(limit >= 0, "limit < 0");
+    final List<Message> messages = new ArrayList<>(Math.min(limit, this.size));
+    for(int i = this.size - 1; i >= 0 && messages.size() < limit; i--) {
+      final Message message = this.messages[this.slot(i)];
+      if(filter.test(message)) {
+        messages.add(message);
+      }
+    }
+    return messages;
+  }
+
+  private void move(final int from, final int to) {
+    this.ids[to] = this.ids[from];
+    this.messages[to] = this.messages[from];
+  }
+
+  private int slot(final int index) {
+    final int slot = this.head + index;
+    return slot < this.ids.length ? slot : slot - this.ids.length;
+  }
+
+  private int search(final @Snowflake long id) {
+    int low = 0;
+    int high = this.size - 1;
+    while(low <= high) {
+      final int mid = (low + high) >>> 1;
+      final long value = this.ids[this.slot(mid)];
+      if(value < id) {
+        low = mid + 1;
+      } else if(value > id) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+}
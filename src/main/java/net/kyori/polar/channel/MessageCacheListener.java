@@ -0,0 +1,47 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.channel;
+
+import net.kyori.kassel.channel.message.Message;
+import net.kyori.kassel.snowflake.Snowflake;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A channel told about changes to the messages held in its cache.
+ */
+public interface MessageCacheListener {
+  /**
+   * Called when a message is cached, or the content of a cached message changes.
+   *
+   * @param message the message
+   */
+  void messageCached(final @NonNull Message message);
+
+  /**
+   * Called when a message is removed from the cache, whether deleted or evicted.
+   *
+   * @param id the message's snowflake id
+   */
+  void messageUncached(final @Snowflake long id);
+}
@@ -28,19 +28,19 @@ import com.google.inject.assistedinject.Assisted;
 import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 import net.kyori.kassel.channel.PrivateChannel;
-import net.kyori.kassel.channel.TextChannel;
 import net.kyori.kassel.channel.message.Message;
 import net.kyori.kassel.channel.message.embed.Embed;
 import net.kyori.kassel.snowflake.Snowflake;
 import net.kyori.mu.Maybe;
 import net.kyori.peppermint.Json;
+import net.kyori.polar.PolarContext;
 import net.kyori.polar.snowflake.SnowflakedImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-public class PrivateChannelImpl extends SnowflakedImpl implements PrivateChannel {
+public class PrivateChannelImpl extends SnowflakedImpl implements PolarContext.Holder, PrivateChannel {
   private static final int MAX_CACHED_MESSAGES = 20;
-  private final TextChannel textChannel;
+  private final TextChannelImpl textChannel;
 
   public static @Snowflake long id(final JsonObject object) {
     final JsonObject recipient;
@@ -58,6 +58,11 @@ public class PrivateChannelImpl extends SnowflakedImpl implements PrivateChannel
     this.textChannel = textChannel.create(this, MAX_CACHED_MESSAGES);
   }
 
+  @Override
+  public @NonNull PolarContext context() {
+    return this.textChannel.context();
+  }
+
   @Override
   public @NonNull Maybe<Message> message(final @Snowflake long id) {
     return this.textChannel.message(id);
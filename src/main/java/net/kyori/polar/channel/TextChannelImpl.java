@@ -23,49 +23,55 @@
  */
 package net.kyori.polar.channel;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
 import net.kyori.kassel.channel.TextChannel;
 import net.kyori.kassel.channel.message.Message;
 import net.kyori.kassel.channel.message.embed.Embed;
 import net.kyori.kassel.snowflake.Snowflake;
 import net.kyori.mu.Maybe;
-import net.kyori.polar.ForPolar;
+import net.kyori.polar.PolarContext;
 import net.kyori.polar.channel.message.MessageImpl;
 import net.kyori.polar.http.HttpClient;
-import net.kyori.polar.http.RateLimitedHttpClient;
 import net.kyori.polar.http.endpoint.Endpoints;
-import net.kyori.polar.util.BoundedLong2ObjectLinkedOpenHashMap;
+import net.kyori.polar.snowflake.Snowflakes;
 import okhttp3.RequestBody;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import static com.google.common.base.Preconditions.checkState;
 
-public class TextChannelImpl implements TextChannel {
-  private final Long2ObjectMap<Message> messages;
+public class TextChannelImpl implements TextChannel, PolarContext.Holder {
+  private final MessageCache messages;
+  private final @Nullable MessageCacheListener listener;
   private final TextChannel channel;
-  private final ExecutorService executor;
-  private final RateLimitedHttpClient httpClient;
-  private final Gson gson;
+  private final PolarContext context;
   private final MessageImpl.Factory messageFactory;
 
-  @Inject
-  private TextChannelImpl(final @Assisted TextChannel channel, final @Assisted int maxCachedMessages, final ExecutorService executor, final RateLimitedHttpClient httpClient, final @ForPolar Gson gson, final MessageImpl.Factory messageFactory) {
+  private TextChannelImpl(final TextChannel channel, final int maxCachedMessages, final PolarContext context, final MessageImpl.Factory messageFactory) {
     this.channel = channel;
-    this.messages = BoundedLong2ObjectLinkedOpenHashMap.sync(maxCachedMessages);
-    this.executor = executor;
-    this.httpClient = httpClient;
-    this.gson = gson;
+    this.listener = channel instanceof MessageCacheListener ? (MessageCacheListener) channel : null;
+    this.messages = new MessageCache(maxCachedMessages, id -> {
+      if(this.listener != null) {
+        this.listener.messageUncached(id);
+      }
+    });
+    this.context = context;
     this.messageFactory = messageFactory;
   }
 
+  @Override
+  public @NonNull PolarContext context() {
+    return this.context;
+  }
+
   @Override
   public @Snowflake long id() {
     return this.channel.id();
@@ -77,11 +83,65 @@ public class TextChannelImpl implements TextChannel {
   }
 
   public void putMessage(final @Snowflake long id, final Message message) {
-    this.messages.put(id, message);
+    if(this.messages.put(id, message) && this.listener != null) {
+      this.listener.messageCached(message);
+    }
   }
 
   public @NonNull Maybe<Message> removeMessage(final @Snowflake long id) {
-    return Maybe.maybe(this.messages.remove(id));
+    final @Nullable Message message = this.messages.remove(id);
+    if(message != null && this.listener != null) {
+      this.listener.messageUncached(id);
+    }
+    return Maybe.maybe(message);
+  }
+
+  /**
+   * Removes every cached message, such as when the channel is deleted.
+   */
+  public void clearMessages() {
+    this.messages.clear();
+  }
+
+  /**
+   * Gets a stream of the cached messages sent after a message, oldest first.
+   *
+   * @param id the message's snowflake id
+   * @return a stream of messages
+   */
+  public @NonNull Stream<Message> messagesAfter(final @Snowflake long id) {
+    return this.messages.after(id).stream();
+  }
+
+  /**
+   * Gets a stream of the cached messages sent at or after an instant, oldest first.
+   *
+   * @param instant the instant
+   * @return a stream of messages
+   */
+  public @NonNull Stream<Message> messagesSince(final @NonNull Instant instant) {
+    return this.messagesAfter(Snowflakes.lowest(instant) - 1);
+  }
+
+  /**
+   * Gets a stream of the cached messages sent within a duration of now, oldest first.
+   *
+   * @param duration the duration
+   * @return a stream of messages
+   */
+  public @NonNull Stream<Message> messagesWithin(final @NonNull Duration duration) {
+    return this.messagesSince(Instant.now().minus(duration));
+  }
+
+  /**
+   * Gets a stream of the latest cached messages by an author, newest first.
+   *
+   * @param author the author's snowflake id
+   * @param limit the maximum number of messages
+   * @return a stream of messages
+   */
+  public @NonNull Stream<Message> latestMessages(final @Snowflake long author, final int limit) {
+    return this.messages.latest(message -> message.author().id() == author, limit).stream();
   }
 
   @Override
@@ -95,10 +155,10 @@ public class TextChannelImpl implements TextChannel {
       json.addProperty("content", "");
     }
     if(embed != null) {
-      json.add("embed", this.gson.toJsonTree(embed));
+      json.add("embed", this.context.gson().toJsonTree(embed));
     }
     final CompletableFuture<Message> future = new CompletableFuture<>();
-    this.executor.submit(() -> this.httpClient
+    this.context.executor().submit(() -> this.context.httpClient()
       .json(Endpoints.sendMessage(this.id()).request(builder -> builder.post(RequestBody.create(HttpClient.JSON_MEDIA_TYPE, json.toString()))))
       .whenComplete((element, throwable) -> {
         if(throwable != null) {
@@ -114,4 +174,21 @@ public class TextChannelImpl implements TextChannel {
   public interface Factory {
     TextChannelImpl create(final TextChannel channel, final int maxCachedMessages);
   }
+
+  @Singleton
+  static final class FactoryImpl implements Factory {
+    private final Provider<PolarContext> context;
+    private final MessageImpl.Factory messageFactory;
+
+    @Inject
+    private FactoryImpl(final Provider<PolarContext> context, final MessageImpl.Factory messageFactory) {
+      this.context = context;
+      this.messageFactory = messageFactory;
+    }
+
+    @Override
+    public TextChannelImpl create(final TextChannel channel, final int maxCachedMessages) {
+      return new TextChannelImpl(channel, maxCachedMessages, this.context.get(), this.messageFactory);
+    }
+  }
 }
@@ -24,20 +24,19 @@
 package net.kyori.polar.channel.message;
 
 import com.google.common.base.MoreObjects;
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
-import javax.inject.Inject;
+import javax.inject.Singleton;
 import net.kyori.kassel.channel.Channel;
+import net.kyori.kassel.channel.TextChannel;
 import net.kyori.kassel.channel.message.Message;
 import net.kyori.kassel.channel.message.embed.Embed;
 import net.kyori.kassel.channel.message.emoji.Emoji;
@@ -46,7 +45,8 @@ import net.kyori.kassel.guild.channel.GuildChannel;
 import net.kyori.kassel.guild.role.Role;
 import net.kyori.kassel.user.User;
 import net.kyori.peppermint.Json;
-import net.kyori.polar.ForPolar;
+import net.kyori.polar.PolarContext;
+import net.kyori.polar.channel.MessageCacheListener;
 import net.kyori.polar.channel.message.embed.EmbedImpl;
 import net.kyori.polar.client.ClientImpl;
 import net.kyori.polar.http.HttpClient;
@@ -57,73 +57,60 @@ import net.kyori.polar.snowflake.SnowflakedImpl;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class MessageImpl extends SnowflakedImpl implements Message, Refreshable {
-  private final MessageRefresher refresher;
-  private final ExecutorService executor;
-  private final RateLimitedHttpClient httpClient;
-  private final Gson gson;
   private final Channel channel;
   private @NonNull User author;
   private @NonNull String content;
-  private @NonNull List<Embed> embeds;
-  private final Set<User> mentionedUsers;
-  private final Set<Role> mentionedRoles;
+  // embeds, mentions and role mentions are kept in their raw form until first accessed
+  private @Nullable JsonArray rawEmbeds;
+  private @Nullable JsonArray rawMentionedUsers;
+  private @Nullable JsonArray rawMentionedRoles;
+  private volatile @Nullable List<Embed> embeds;
+  private volatile @Nullable Set<User> mentionedUsers;
+  private volatile @Nullable Set<Role> mentionedRoles;
 
-  @Inject
-  private MessageImpl(final MessageRefresher refresher, final ExecutorService executor, final RateLimitedHttpClient httpClient, final @ForPolar Gson gson, final ClientImpl client, final @Assisted Channel channel, final @Assisted JsonObject json) {
+  private MessageImpl(final Channel channel, final JsonObject json) {
     super(Json.needLong(json, "id"));
-    this.refresher = refresher;
-    this.executor = executor;
-    this.httpClient = httpClient;
-    this.gson = gson;
     this.channel = channel;
-    this.author = client.userOrCreate(json.getAsJsonObject("author"));
+    this.author = this.context().client().userOrCreate(json.getAsJsonObject("author"));
     this.content = Json.needString(json, "content");
 
-    if(Json.isArray(json, "embeds")) {
-      final JsonArray embeds = json.getAsJsonArray("embeds");
-      this.embeds = new ArrayList<>(embeds.size());
-      for(final JsonElement embed : embeds) {
-        this.embeds.add(new EmbedImpl(embed.getAsJsonObject()));
-      }
+    if(Json.isArray(json, "embeds") && json.getAsJsonArray("embeds").size() > 0) {
+      this.rawEmbeds = json.getAsJsonArray("embeds");
     } else {
       this.embeds = Collections.emptyList();
     }
 
-    if(Json.isArray(json, "mentions")) {
-      final JsonArray mentions = json.getAsJsonArray("mentions");
-      if(mentions.size() > 0) {
-        this.mentionedUsers = new HashSet<>(mentions.size());
-        for(final JsonElement mention : mentions) {
-          this.mentionedUsers.add(client.userOrCreate(mention.getAsJsonObject()));
-        }
-      } else {
-        this.mentionedUsers = Collections.emptySet();
-      }
+    if(Json.isArray(json, "mentions") && json.getAsJsonArray("mentions").size() > 0) {
+      this.rawMentionedUsers = json.getAsJsonArray("mentions");
     } else {
       this.mentionedUsers = Collections.emptySet();
     }
 
-    if(Json.isArray(json, "mention_roles")) {
-      final JsonArray mentionRoles = json.getAsJsonArray("mention_roles");
-      if(mentionRoles.size() > 0 && channel instanceof GuildChannel) {
-        final Guild guild = ((GuildChannel) channel).guild();
-        this.mentionedRoles = new HashSet<>(mentionRoles.size());
-        for(final JsonElement mentionRole : mentionRoles) {
-          guild.role(Json.needLong(mentionRole, "id")).ifJust(this.mentionedRoles::add);
-        }
-      } else {
-        this.mentionedRoles = Collections.emptySet();
-      }
+    if(Json.isArray(json, "mention_roles") && json.getAsJsonArray("mention_roles").size() > 0 && channel instanceof GuildChannel) {
+      this.rawMentionedRoles = json.getAsJsonArray("mention_roles");
     } else {
       this.mentionedRoles = Collections.emptySet();
     }
   }
 
+  static @NonNull List<Embed> embeds(final @NonNull JsonArray json) {
+    final List<Embed> embeds = new ArrayList<>(json.size());
+    for(final JsonElement embed : json) {
+      embeds.add(new EmbedImpl(embed.getAsJsonObject()));
+    }
+    return embeds;
+  }
+
+  private @NonNull PolarContext context() {
+    return ((PolarContext.Holder) this.channel).context();
+  }
+
   @Override
   public void refresh(final JsonElement json) {
-    this.refresher.refresh(new MessageRefresher.Context() {
+    this.context().refresher(MessageRefresher.class).refresh(new MessageRefresher.Context() {
       @Override
       public @NonNull Channel channel() {
         return MessageImpl.this.channel;
@@ -148,21 +135,68 @@ public final class MessageImpl extends SnowflakedImpl implements Message, Refres
 
   void content(final @NonNull String content) {
     this.content = content;
+    // only a message still held by its channel's cache may be indexed
+    if(this.channel instanceof MessageCacheListener && this.channel instanceof TextChannel && ((TextChannel) this.channel).message(this.id()).orDefault(null) == this) {
+      ((MessageCacheListener) this.channel).messageCached(this);
+    }
   }
 
   @Override
   public @NonNull List<Embed> embeds() {
-    return this.embeds;
+    @Nullable List<Embed> embeds = this.embeds;
+    if(embeds == null) {
+      synchronized(this) {
+        embeds = this.embeds;
+        if(embeds == null) {
+          embeds = embeds(this.rawEmbeds);
+          this.embeds = embeds;
+          this.rawEmbeds = null;
+        }
+      }
+    }
+    return embeds;
   }
 
   @Override
   public @NonNull Stream<User> mentionedUsers() {
-    return this.mentionedUsers.stream();
+    @Nullable Set<User> mentionedUsers = this.mentionedUsers;
+    if(mentionedUsers == null) {
+      synchronized(this) {
+        mentionedUsers = this.mentionedUsers;
+        if(mentionedUsers == null) {
+          final JsonArray mentions = this.rawMentionedUsers;
+          final ClientImpl client = this.context().client();
+          mentionedUsers = new HashSet<>(mentions.size());
+          for(final JsonElement mention : mentions) {
+            mentionedUsers.add(client.userOrCreate(mention.getAsJsonObject()));
+          }
+          this.mentionedUsers = mentionedUsers;
+          this.rawMentionedUsers = null;
+        }
+      }
+    }
+    return mentionedUsers.stream();
   }
 
   @Override
   public @NonNull Stream<Role> mentionedRoles() {
-    return this.mentionedRoles.stream();
+    @Nullable Set<Role> mentionedRoles = this.mentionedRoles;
+    if(mentionedRoles == null) {
+      synchronized(this) {
+        mentionedRoles = this.mentionedRoles;
+        if(mentionedRoles == null) {
+          final JsonArray mentionRoles = this.rawMentionedRoles;
+          final Guild guild = ((GuildChannel) this.channel).guild();
+          mentionedRoles = new HashSet<>(mentionRoles.size());
+          for(final JsonElement mentionRole : mentionRoles) {
+            guild.role(Json.needLong(mentionRole, "id")).ifJust(mentionedRoles::add);
+          }
+          this.mentionedRoles = mentionedRoles;
+          this.rawMentionedRoles = null;
+        }
+      }
+    }
+    return mentionedRoles.stream();
   }
 
   @Override
@@ -170,30 +204,30 @@ public final class MessageImpl extends SnowflakedImpl implements Message, Refres
     return new Reactions() {
       @Override
       public void add(final @NonNull Emoji emoji) {
-        MessageImpl.this.executor.submit(() -> MessageImpl.this.httpClient.json(Endpoints.addReaction(MessageImpl.this.channel.id(), MessageImpl.this.id, emoji).request(builder -> builder.put(RequestBody.create(null, new byte[0])))));
+        MessageImpl.this.submit(httpClient -> httpClient.json(Endpoints.addReaction(MessageImpl.this.channel.id(), MessageImpl.this.id, emoji).request(builder -> builder.put(RequestBody.create(null, new byte[0])))));
       }
 
       @Override
       public void remove(final @NonNull Emoji emoji) {
-        MessageImpl.this.executor.submit(() -> MessageImpl.this.httpClient.json(Endpoints.deleteReaction(MessageImpl.this.channel.id(), MessageImpl.this.id, emoji).request(Request.Builder::delete)));
+        MessageImpl.this.submit(httpClient -> httpClient.json(Endpoints.deleteReaction(MessageImpl.this.channel.id(), MessageImpl.this.id, emoji).request(Request.Builder::delete)));
       }
 
       @Override
       public void remove(final @NonNull User user, final @NonNull Emoji emoji) {
-        MessageImpl.this.executor.submit(() -> MessageImpl.this.httpClient.json(Endpoints.deleteReaction(MessageImpl.this.channel.id(), MessageImpl.this.id, user, emoji).request(Request.Builder::delete)));
+        MessageImpl.this.submit(httpClient -> httpClient.json(Endpoints.deleteReaction(MessageImpl.this.channel.id(), MessageImpl.this.id, user, emoji).request(Request.Builder::delete)));
       }
 
       @Override
       public void removeAll() {
-        MessageImpl.this.executor.submit(() -> MessageImpl.this.httpClient.json(Endpoints.deleteReactions(MessageImpl.this.channel.id(), MessageImpl.this.id).request(Request.Builder::delete)));
+        MessageImpl.this.submit(httpClient -> httpClient.json(Endpoints.deleteReactions(MessageImpl.this.channel.id(), MessageImpl.this.id).request(Request.Builder::delete)));
       }
     };
   }
 
   @Override
   public void edit(final @NonNull Edit edit) {
-    this.executor.submit(() -> this.httpClient.json(Endpoints.editMessage(this.channel.id(), this.id).request(builder -> {
-      final JsonObject json = this.gson.toJsonTree(edit).getAsJsonObject();
+    this.submit(httpClient -> httpClient.json(Endpoints.editMessage(this.channel.id(), this.id).request(builder -> {
+      final JsonObject json = this.context().gson().toJsonTree(edit).getAsJsonObject();
       // message must have content
       if(!json.has("content")) {
         json.addProperty("content", this.content);
@@ -209,22 +243,41 @@ public final class MessageImpl extends SnowflakedImpl implements Message, Refres
 
   @Override
   public void delete() {
-    this.executor.submit(() -> this.httpClient.json(Endpoints.deleteMessage(this.channel.id(), this.id).request(Request.Builder::delete)));
+    this.submit(httpClient -> httpClient.json(Endpoints.deleteMessage(this.channel.id(), this.id).request(Request.Builder::delete)));
+  }
+
+  private void submit(final Consumer<RateLimitedHttpClient> request) {
+    final PolarContext context = this.context();
+    context.executor().submit(() -> request.accept(context.httpClient()));
   }
 
   void embeds(final @NonNull List<Embed> embeds) {
-    this.embeds = embeds;
+    synchronized(this) {
+      this.embeds = embeds;
+      this.rawEmbeds = null;
+    }
   }
 
   @Override
   protected MoreObjects.ToStringHelper toStringer() {
-    return super.toStringer()
+    final MoreObjects.ToStringHelper helper = super.toStringer()
       .add("author", this.author)
-      .add("content", this.content)
-      .add("embeds", this.embeds);
+      .add("content", this.content);
+    // printing a message must not decode its embeds
+    synchronized(this) {
+      return this.embeds != null ? helper.add("embeds", this.embeds) : helper.add("undecodedEmbeds", this.rawEmbeds.size());
+    }
   }
 
   public interface Factory {
     MessageImpl create(final Channel channel, final JsonObject json);
   }
+
+  @Singleton
+  static final class FactoryImpl implements Factory {
+    @Override
+    public MessageImpl create(final Channel channel, final JsonObject json) {
+      return new MessageImpl(channel, json);
+    }
+  }
 }
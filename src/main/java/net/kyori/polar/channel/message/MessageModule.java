@@ -28,6 +28,6 @@ import net.kyori.violet.AbstractModule;
 public final class MessageModule extends AbstractModule {
   @Override
   protected void configure() {
-    this.installFactory(MessageImpl.Factory.class);
+    this.bind(MessageImpl.Factory.class).to(MessageImpl.FactoryImpl.class);
   }
 }
@@ -23,8 +23,6 @@
  */
 package net.kyori.polar.channel.message;
 
-import com.google.gson.JsonElement;
-import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Singleton;
 import net.kyori.kassel.channel.Channel;
@@ -33,7 +31,6 @@ import net.kyori.kassel.channel.message.embed.Embed;
 import net.kyori.kassel.channel.message.event.ChannelMessageContentChangeEvent;
 import net.kyori.kassel.channel.message.event.ChannelMessageEmbedsChangeEvent;
 import net.kyori.peppermint.Json;
-import net.kyori.polar.channel.message.embed.EmbedImpl;
 import net.kyori.polar.refresh.RefreshContext;
 import net.kyori.polar.refresh.Refresher;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -63,13 +60,7 @@ final class MessageRefresher extends Refresher<MessageImpl, MessageRefresher.Con
         return newContent;
       }
     });
-    this.field(MessageImpl::embeds, json -> {
-      final List<Embed> embeds = new ArrayList<>(json.getAsJsonArray("embeds").size());
-      for(final JsonElement embed : json.getAsJsonArray("embeds")) {
-        embeds.add(new EmbedImpl(embed.getAsJsonObject()));
-      }
-      return embeds;
-    }, MessageImpl::embeds, (context, oldEmbeds, newEmbeds) -> new ChannelMessageEmbedsChangeEvent() {
+    this.field(MessageImpl::embeds, json -> MessageImpl.embeds(json.getAsJsonArray("embeds")), MessageImpl::embeds, (context, oldEmbeds, newEmbeds) -> new ChannelMessageEmbedsChangeEvent() {
       @Override
       public @NonNull Channel channel() {
         return context.channel();
@@ -26,6 +26,7 @@ package net.kyori.polar.client;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import java.util.ArrayList;
 import java.util.List;
@@ -72,7 +73,7 @@ public final class ClientImpl implements Client {
   private final List<Shard> shards;
 
   // Users
-  private final Long2ObjectMap<User> users = new Long2ObjectOpenHashMap<>();
+  private final Long2ObjectMap<User> users = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>());
   private final UserImpl.Factory userFactory;
 
   // Channels
@@ -155,11 +156,46 @@ public final class ClientImpl implements Client {
 
   public @NonNull User userOrCreate(final JsonObject json) {
     final @Snowflake long id = Json.needLong(json, "id");
-    return this.user(id).orGet(() -> {
-      final User user = this.userFactory.create(json);
-      this.users.put(id, user);
-      return user;
-    });
+    final @Nullable User existing = this.users.get(id);
+    if(existing != null) {
+      return existing;
+    }
+    // members are decoded in parallel, so another thread may have created this user in the meantime
+    final User user = this.userFactory.create(json);
+    synchronized(this.users) {
+      final @Nullable User raced = this.users.putIfAbsent(id, user);
+      return raced != null ? raced : user;
+    }
+  }
+
+  public @NonNull User[] usersOrCreate(final @NonNull JsonObject[] json) {
+    final User[] users = new User[json.length];
+    synchronized(this.users) {
+      for(int i = 0; i < json.length; i++) {
+        users[i] = this.users.get(Json.needLong(json[i], "id"));
+      }
+    }
+    final boolean[] created = new boolean[json.length];
+    boolean anyCreated = false;
+    for(int i = 0; i < json.length; i++) {
+      if(users[i] == null) {
+        users[i] = this.userFactory.create(json[i]);
+        created[i] = anyCreated = true;
+      }
+    }
+    if(anyCreated) {
+      synchronized(this.users) {
+        for(int i = 0; i < json.length; i++) {
+          if(created[i]) {
+            final @Nullable User raced = this.users.putIfAbsent(users[i].id(), users[i]);
+            if(raced != null) {
+              users[i] = raced;
+            }
+          }
+        }
+      }
+    }
+    return users;
   }
 
   public Maybe<Channel> channel(final @Snowflake long id) {
@@ -170,7 +206,7 @@ public final class ClientImpl implements Client {
     final CompletableFuture<PrivateChannel> future = new CompletableFuture<>();
     this.executor.submit(() -> {
       this.httpClient
-        .json(Endpoints.createPrivateChannel().request(builder -> builder.post(RequestBody.create(HttpClient.JSON_MEDIA_TYPE, Composer.accept(new JsonObject(), object -> object.addProperty("recipient_id", user.id())).toString()))))
+        .json(Endpoints.createPrivateChannel().request(builder -> builder.post(RequestBody.create(HttpClient.JSON_MEDIA_TYPE, Composer.accept(new JsonObject(), object -> object.addProperty("recipient_id", user.id())).toString())), HttpClient.IDEMPOTENT)
         .whenComplete((element, throwable) -> {
           if(throwable != null) {
             future.completeExceptionally(throwable);
@@ -25,6 +25,7 @@ package net.kyori.polar.gateway;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
@@ -47,7 +48,9 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -123,6 +126,10 @@ public final class Gateway extends WebSocketAdapter implements Connectable {
   private final GuildImpl.Factory guildFactory;
   private final MessageImpl.Factory messageFactory;
 
+  // Dispatched events are applied here, in gateway order, rather than on the socket thread - so a large member chunk
+  // never holds up heartbeats, and never overtakes or falls behind the events around it
+  private final ThreadPoolExecutor dispatcher;
+
   private WebSocket ws;
   private Inflater inflater;
 
@@ -147,6 +154,11 @@ public final class Gateway extends WebSocketAdapter implements Connectable {
     this.url = url;
     this.guildFactory = guildFactory;
     this.messageFactory = messageFactory;
+    this.dispatcher = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+      .setNameFormat("Polar Dispatch - Shard " + shard.id())
+      .setDaemon(true)
+      .build());
+    this.dispatcher.allowCoreThreadTimeOut(true);
   }
 
   @Override
@@ -344,6 +356,24 @@ public final class Gateway extends WebSocketAdapter implements Connectable {
     final String eventName = Json.needString(json, GatewayPayload.EVENT_NAME);
     final JsonElement eventData = json.get(GatewayPayload.EVENT_DATA);
 
+    // session state stays with the socket thread
+    switch(eventName) {
+      case GatewayEvent.READY: this.dispatchReady(eventData.getAsJsonObject()); return;
+      case GatewayEvent.RESUMED: this.dispatchResumed(); return;
+    }
+
+    // guilds are looked up when an event is applied rather than when it is received, so an event never applies to
+    // a guild that an earlier event deleted or replaced
+    this.dispatcher.execute(() -> {
+      try {
+        this.dispatch(ws, eventName, eventData);
+      } catch(final Throwable t) {
+        LOGGER.error("Encountered an exception while processing event {} {}", eventName, eventData, t);
+      }
+    });
+  }
+
+  private void dispatch(final WebSocket ws, final String eventName, final JsonElement eventData) {
     switch(eventName) {
       case GatewayEvent.CHANNEL_CREATE: this.dispatchChannelCreate(eventData.getAsJsonObject()); break;
       case GatewayEvent.CHANNEL_DELETE: this.dispatchChannelDelete(eventData.getAsJsonObject()); break;
@@ -370,8 +400,6 @@ public final class Gateway extends WebSocketAdapter implements Connectable {
       case GatewayEvent.MESSAGE_REACTION_REMOVE_ALL: this.dispatchMessageReactionRemoveAll(eventData.getAsJsonObject()); break;
       case GatewayEvent.MESSAGE_UPDATE: this.dispatchMessageUpdate(eventData.getAsJsonObject()); break;
       case GatewayEvent.PRESENCE_UPDATE: /* don't care */ break;
-      case GatewayEvent.READY: this.dispatchReady(eventData.getAsJsonObject()); break;
-      case GatewayEvent.RESUMED: this.dispatchResumed(); break;
       case GatewayEvent.TYPING_START: /* don't care */ break;
       case GatewayEvent.USER_UPDATE: /* don't care */ break;
       case GatewayEvent.VOICE_STATE_UPDATE: /* don't care */ break;
@@ -539,11 +567,7 @@ public final class Gateway extends WebSocketAdapter implements Connectable {
   private void dispatchGuildMembersChunk(final JsonObject json) {
     this.shard.guild(Json.needLong(json, "guild_id"))
       .cast(GuildImpl.class)
-      .ifJust(guild -> {
-        for(final JsonElement member : json.getAsJsonArray("members")) {
-          guild.putMember(member.getAsJsonObject());
-        }
-      });
+      .ifJust(guild -> guild.putMembers(json.getAsJsonArray("members")));
   }
 
   private void dispatchGuildRoleCreate(final JsonObject json) {
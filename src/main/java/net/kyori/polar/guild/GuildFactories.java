@@ -27,67 +27,68 @@ import com.google.gson.JsonObject;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import net.kyori.kassel.channel.ChannelCategory;
-import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.channel.GuildTextChannel;
 import net.kyori.kassel.guild.channel.GuildVoiceChannel;
-import net.kyori.kassel.guild.member.Member;
 import net.kyori.kassel.guild.role.Role;
+import net.kyori.polar.PolarConfiguration;
+import net.kyori.polar.channel.TextChannelImpl;
 import net.kyori.polar.guild.channel.GuildChannelCategoryImpl;
 import net.kyori.polar.guild.channel.GuildTextChannelImpl;
 import net.kyori.polar.guild.channel.GuildVoiceChannelImpl;
-import net.kyori.polar.guild.member.MemberImpl;
+import net.kyori.polar.guild.member.CompactMemberStore;
+import net.kyori.polar.guild.member.MemberStore;
+import net.kyori.polar.guild.member.SimpleMemberStore;
 import net.kyori.polar.guild.role.RoleImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public interface GuildFactories {
-  @NonNull ChannelCategory channelCategory(final @NonNull Guild guild, final @NonNull JsonObject json);
+  @NonNull ChannelCategory channelCategory(final @NonNull GuildImpl guild, final @NonNull JsonObject json);
 
-  @NonNull GuildTextChannel textChannel(final @NonNull Guild guild, final @NonNull JsonObject json);
+  @NonNull GuildTextChannel textChannel(final @NonNull GuildImpl guild, final @NonNull JsonObject json);
 
-  @NonNull GuildVoiceChannel voiceChannel(final @NonNull Guild guild, final @NonNull JsonObject json);
+  @NonNull GuildVoiceChannel voiceChannel(final @NonNull GuildImpl guild, final @NonNull JsonObject json);
 
-  @NonNull Member member(final @NonNull Guild guild, final @NonNull JsonObject json);
+  @NonNull MemberStore members(final @NonNull GuildImpl guild, final int expected);
 
-  @NonNull Role role(final @NonNull Guild guild, final @NonNull JsonObject json);
+  @NonNull Role role(final @NonNull GuildImpl guild, final @NonNull JsonObject json);
 }
 
 @Singleton
 final class GuildFactoriesImpl implements GuildFactories {
-  private final GuildTextChannelImpl.Factory textChannel;
-  private final GuildVoiceChannelImpl.Factory voiceChannel;
-  private final MemberImpl.Factory member;
-  private final RoleImpl.Factory role;
+  private final TextChannelImpl.Factory textChannel;
+  private final int compactMemberThreshold;
 
   @Inject
-  private GuildFactoriesImpl(final GuildTextChannelImpl.Factory textChannel, final GuildVoiceChannelImpl.Factory voiceChannel, final MemberImpl.Factory member, final RoleImpl.Factory role) {
+  private GuildFactoriesImpl(final PolarConfiguration configuration, final TextChannelImpl.Factory textChannel) {
     this.textChannel = textChannel;
-    this.voiceChannel = voiceChannel;
-    this.member = member;
-    this.role = role;
+    this.compactMemberThreshold = configuration.compactMemberThreshold();
   }
 
   @Override
-  public @NonNull ChannelCategory channelCategory(final @NonNull Guild guild, final @NonNull JsonObject json) {
+  public @NonNull ChannelCategory channelCategory(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
     return new GuildChannelCategoryImpl(guild, json);
   }
 
   @Override
-  public @NonNull GuildTextChannel textChannel(final @NonNull Guild guild, final @NonNull JsonObject json) {
-    return this.textChannel.create(guild, json);
+  public @NonNull GuildTextChannel textChannel(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
+    return new GuildTextChannelImpl(this.textChannel, guild, json);
   }
 
   @Override
-  public @NonNull GuildVoiceChannel voiceChannel(final @NonNull Guild guild, final @NonNull JsonObject json) {
-    return this.voiceChannel.create(guild, json);
+  public @NonNull GuildVoiceChannel voiceChannel(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
+    return new GuildVoiceChannelImpl(guild, json);
   }
 
   @Override
-  public @NonNull Member member(final @NonNull Guild guild, final @NonNull JsonObject json) {
-    return this.member.create(guild, json);
+  public @NonNull MemberStore members(final @NonNull GuildImpl guild, final int expected) {
+    if(expected >= this.compactMemberThreshold) {
+      return new CompactMemberStore(guild, expected);
+    }
+    return new SimpleMemberStore(guild, expected);
   }
 
   @Override
-  public @NonNull Role role(final @NonNull Guild guild, final @NonNull JsonObject json) {
-    return this.role.create(guild, json);
+  public @NonNull Role role(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
+    return new RoleImpl(guild, json);
   }
 }
@@ -24,106 +24,155 @@
 package net.kyori.polar.guild;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.inject.assistedinject.Assisted;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArraySet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import java.util.Arrays;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.LongConsumer;
-import java.util.stream.Collectors;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import javax.inject.Inject;
 import net.kyori.kassel.channel.Channel;
+import net.kyori.kassel.channel.message.Message;
 import net.kyori.kassel.channel.message.emoji.CustomEmoji;
 import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.member.Member;
 import net.kyori.kassel.guild.role.Role;
 import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.kassel.user.User;
 import net.kyori.mu.Maybe;
 import net.kyori.peppermint.Json;
+import net.kyori.polar.PolarContext;
 import net.kyori.polar.channel.ChannelTypes;
 import net.kyori.polar.channel.message.emoji.CustomEmojiImpl;
 import net.kyori.polar.channel.message.emoji.Emojis;
+import net.kyori.polar.guild.channel.GuildTextChannelImpl;
+import net.kyori.polar.guild.member.MemberStore;
+import net.kyori.polar.guild.member.RoleSet;
+import net.kyori.polar.guild.permission.Overwritable;
+import net.kyori.polar.guild.permission.Permissions;
+import net.kyori.polar.guild.role.RoleImpl;
 import net.kyori.polar.refresh.Refreshable;
 import net.kyori.polar.snowflake.SnowflakedImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshable {
-  private final Long2ObjectMap<Channel> channels = new Long2ObjectOpenHashMap<>();
-  final Long2ObjectMap<CustomEmoji> emojis = new Long2ObjectOpenHashMap<>();
-  private final Long2ObjectMap<Member> members = new Long2ObjectOpenHashMap<>();
-  private final Long2ObjectMap<Role> roles = new Long2ObjectOpenHashMap<>();
+public final class GuildImpl extends SnowflakedImpl implements Guild, PolarContext.Holder, Refreshable {
+  private final SnapshotMap<Channel> channels;
+  private final SnapshotMap<CustomEmoji> emojis;
+  private final MemberStore members;
+  private final Interner<RoleSet> roleSets = Interners.newWeakInterner();
+  private final @Nullable RoleIndex roleIndex;
+  private final @Nullable MemberSearchIndex searchIndex;
+  private final @Nullable MessageSearchIndex messageIndex;
+  private final PermissionCache permissionCache = new PermissionCache();
+  private volatile RoleHierarchy hierarchy = RoleHierarchy.EMPTY;
+  private final SnapshotMap<Role> roles;
+  private final PolarContext context;
   private final GuildFactories factories;
-  private final GuildRefresher refresher;
   private @NonNull String name;
+  private @Snowflake long owner;
 
   @Inject
-  private GuildImpl(final GuildFactories factories, final GuildRefresher refresher, final @Assisted JsonObject json) {
+  private GuildImpl(final PolarContext context, final GuildFactories factories, final @Assisted JsonObject json) {
     super(Json.needLong(json, "id"));
 
+    this.context = context;
     this.factories = factories;
-    this.refresher = refresher;
 
     this.name = Json.needString(json, "name");
-
-    if(Json.isArray(json, "channels")) {
-      this.readChannels(json.getAsJsonArray("channels"));
-    }
-
-    if(Json.isArray(json, "emojis")) {
-      this.readEmojis(json.getAsJsonArray("emojis"));
-    }
-
-    if(Json.isArray(json, "roles")) {
-      this.readRoles(json.getAsJsonArray("roles"));
-    }
-
-    if(Json.isArray(json, "members")) {
-      this.readMembers(json.getAsJsonArray("members"));
+    this.owner = Json.needLong(json, "owner_id");
+
+    final JsonArray channels = array(json, "channels");
+    final JsonArray emojis = array(json, "emojis");
+    final JsonArray roles = array(json, "roles");
+    final JsonArray members = array(json, "members");
+    final int memberCount = Math.max(Json.getInt(json, "member_count", 0), members.size());
+
+    this.channels = new SnapshotMap<>(channels.size());
+    this.emojis = new SnapshotMap<>(emojis.size());
+    this.roles = new SnapshotMap<>(roles.size());
+    this.roleIndex = context.configuration().roleIndex() ? new RoleIndex(roles.size()) : null;
+    this.searchIndex = context.configuration().memberSearchIndex() ? new MemberSearchIndex() : null;
+    this.messageIndex = context.configuration().messageSearchIndex() ? new MessageSearchIndex() : null;
+    this.members = factories.members(this, memberCount);
+
+    if(memberCount >= context.configuration().parallelMemberThreshold()) {
+      // channels and roles are built on the fork-join pool while the members are decoded, which the store also
+      // parallelizes - every part is joined before the constructor returns, and so before the guild is published
+      final CompletableFuture<Void> channelsBuilt = CompletableFuture.runAsync(() -> this.readChannels(channels), ForkJoinPool.commonPool());
+      final CompletableFuture<Void> rolesBuilt = CompletableFuture.runAsync(() -> this.readRoles(roles), ForkJoinPool.commonPool());
+      this.readEmojis(emojis);
+      this.members.putAll(members);
+      try {
+        CompletableFuture.allOf(channelsBuilt, rolesBuilt).join();
+      } catch(final CompletionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw e;
+      }
+    } else {
+      this.readChannels(channels);
+      this.readEmojis(emojis);
+      this.readRoles(roles);
+      this.members.putAll(members);
     }
   }
 
-  private void readChannels(final JsonArray channels) {
-    for(final JsonElement channel : channels) {
-      this.readChannel(channel.getAsJsonObject());
-    }
+  private static JsonArray array(final JsonObject json, final String key) {
+    return Json.isArray(json, key) ? json.getAsJsonArray(key) : new JsonArray();
   }
 
-  private void readChannel(final JsonObject json) {
-    this.putChannel(Json.needLong(json, "id"), json);
+  private void readChannels(final JsonArray channels) {
+    this.channels.update(map -> {
+      for(final JsonElement element : channels) {
+        final JsonObject json = element.getAsJsonObject();
+        final @Nullable Channel channel = this.createChannel(json);
+        if(channel != null) {
+          map.put(Json.needLong(json, "id"), channel);
+        }
+      }
+    });
   }
 
   private void readEmojis(final JsonArray emojis) {
-    for(final JsonElement emoji : emojis) {
-      this.readEmoji(emoji.getAsJsonObject());
-    }
-  }
-
-  private void readEmoji(final JsonObject json) {
-    this.putEmoji(Json.needLong(json, "id"), json);
+    this.emojis.update(map -> {
+      for(final JsonElement emoji : emojis) {
+        final JsonObject json = emoji.getAsJsonObject();
+        map.put(Json.needLong(json, "id"), Emojis.custom(json));
+      }
+    });
   }
 
   private void readRoles(final JsonArray roles) {
-    for(final JsonElement role : roles) {
-      this.putRole(role.getAsJsonObject());
-    }
+    this.roles.update(map -> {
+      for(final JsonElement element : roles) {
+        final JsonObject json = element.getAsJsonObject();
+        final Role role = this.factories.role(this, json);
+        map.put(Json.needLong(json, "id"), role);
+        this.hierarchy(hierarchy -> hierarchy.with((RoleImpl) role));
+      }
+    });
   }
 
-  private void readMembers(final JsonArray members) {
-    for(final JsonElement member : members) {
-      this.putMember(member.getAsJsonObject());
-    }
+  @Override
+  public @NonNull PolarContext context() {
+    return this.context;
   }
 
   @Override
   public void refresh(final JsonElement json) {
-    this.refresher.refresh(() -> this, json);
+    this.context.refresher(GuildRefresher.class).refresh(() -> this, json);
   }
 
   @Override
@@ -135,9 +184,18 @@ public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshabl
     this.name = name;
   }
 
+  public @Snowflake long owner() {
+    return this.owner;
+  }
+
+  void owner(final @Snowflake long owner) {
+    this.owner = owner;
+    this.permissionCache.invalidateAll();
+  }
+
   @Override
   public @NonNull Stream<Channel> channels() {
-    return this.channels.values().stream();
+    return this.channels.stream();
   }
 
   @Override
@@ -146,32 +204,40 @@ public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshabl
   }
 
   public @NonNull Maybe<Channel> putChannel(final @Snowflake long id, final JsonObject json) {
-    final @Nullable Channel channel;
-    switch(Json.needInt(json, "type")) {
-      case ChannelTypes.GUILD_CATEGORY: channel = this.factories.channelCategory(this, json); break;
-      case ChannelTypes.GUILD_TEXT: channel = this.factories.textChannel(this, json); break;
-      case ChannelTypes.GUILD_VOICE: channel = this.factories.voiceChannel(this, json); break;
-      case ChannelTypes.DM: throw new UnsupportedOperationException("dm");
-      case ChannelTypes.GROUP_DM: throw new UnsupportedOperationException("group_dm");
-      case ChannelTypes.GUILD_NEWS: return Maybe.nothing();
-      case ChannelTypes.GUILD_STORE: return Maybe.nothing(); // bots cannot read or send from a store channel type (it is just a store page)
-      default: throw new IllegalArgumentException(String.valueOf(Json.needInt(json, "type")));
-    }
-
+    final @Nullable Channel channel = this.createChannel(json);
     if(channel != null) {
       this.channels.put(id, channel);
+      this.permissionCache.invalidateChannel(id);
     }
 
     return Maybe.maybe(channel);
   }
 
+  private @Nullable Channel createChannel(final JsonObject json) {
+    switch(Json.needInt(json, "type")) {
+      case ChannelTypes.GUILD_CATEGORY: return this.factories.channelCategory(this, json);
+      case ChannelTypes.GUILD_TEXT: return this.factories.textChannel(this, json);
+      case ChannelTypes.GUILD_VOICE: return this.factories.voiceChannel(this, json);
+      case ChannelTypes.DM: throw new UnsupportedOperationException("dm");
+      case ChannelTypes.GROUP_DM: throw new UnsupportedOperationException("group_dm");
+      case ChannelTypes.GUILD_NEWS: return null;
+      case ChannelTypes.GUILD_STORE: return null; // bots cannot read or send from a store channel type (it is just a store page)
+      default: throw new IllegalArgumentException(String.valueOf(Json.needInt(json, "type")));
+    }
+  }
+
   public @NonNull Maybe<Channel> removeChannel(final @Snowflake long id) {
-    return Maybe.maybe(this.channels.remove(id));
+    this.permissionCache.invalidateChannel(id);
+    final @Nullable Channel channel = this.channels.remove(id);
+    if(channel instanceof GuildTextChannelImpl) {
+      ((GuildTextChannelImpl) channel).clearMessages(); // unindexes them
+    }
+    return Maybe.maybe(channel);
   }
 
   @Override
   public @NonNull Stream<CustomEmoji> emojis() {
-    return this.emojis.values().stream();
+    return this.emojis.stream();
   }
 
   @Override
@@ -179,23 +245,21 @@ public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshabl
     return Maybe.maybe(this.emojis.get(id));
   }
 
-  private void putEmoji(final @Snowflake long id, final JsonObject json) {
-    this.emojis.put(id, Emojis.custom(json));
-  }
-
   public void refreshEmojis(final JsonArray emojis) {
-    final EmojiRefresher refresher = new EmojiRefresher();
+    this.emojis.update(map -> {
+      final EmojiRefresher refresher = new EmojiRefresher(map);
 
-    for(final JsonElement emoji : emojis) {
-      refresher.refresh(emoji.getAsJsonObject());
-    }
+      for(final JsonElement emoji : emojis) {
+        refresher.refresh(emoji.getAsJsonObject());
+      }
 
-    refresher.removeDead();
+      refresher.removeDead();
+    });
   }
 
   @Override
   public @NonNull Maybe<Member> member(final @Snowflake long id) {
-    return Maybe.maybe(this.members.get(id));
+    return this.members.get(id);
   }
 
   public boolean requiresMemberChunking(final int expected) {
@@ -204,25 +268,140 @@ public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshabl
 
   @Override
   public @NonNull Stream<Role> roles() {
-    return this.roles.values().stream();
+    return this.roles.stream();
   }
 
   public @NonNull Member putMember(final JsonObject json) {
-    final Member member = this.factories.member(this, json);
-    this.members.put(Json.needLong(json.getAsJsonObject("user"), "id"), member);
-    return member;
+    return this.members.put(json);
+  }
+
+  public void putMembers(final JsonArray json) {
+    this.members.putAll(json);
   }
 
   public @NonNull Maybe<Member> removeMember(final @Snowflake long id) {
-    return Maybe.maybe(this.members.remove(id));
+    return this.members.remove(id);
   }
 
-  public static Set<Role> roles(final Guild guild, final long[] roles) {
-    return Arrays.stream(roles)
-      .mapToObj(guild::role)
-      .filter(Maybe::isJust)
-      .map(Maybe::orThrow)
-      .collect(Collectors.toSet());
+  /**
+   * Gets a stream of the members holding a role.
+   *
+   * @param role the role's snowflake id
+   * @return a stream of the members holding the role
+   */
+  public @NonNull Stream<Member> membersWithRole(final @Snowflake long role) {
+    if(this.roleIndex != null) {
+      return Arrays.stream(this.roleIndex.members(role))
+        .mapToObj(this::member)
+        .filter(Maybe::isJust)
+        .map(Maybe::orThrow);
+    }
+    return this.members.withRole(role);
+  }
+
+  /**
+   * Finds the members whose username or nick starts with a prefix, ignoring case.
+   *
+   * @param prefix the prefix
+   * @param limit the maximum number of members to find
+   * @return a stream of the members found
+   */
+  public @NonNull Stream<Member> searchMembers(final @NonNull String prefix, final int limit) {
+    if(this.searchIndex != null) {
+      return Arrays.stream(this.searchIndex.search(prefix, limit))
+        .mapToObj(this::member)
+        .filter(Maybe::isJust)
+        .map(Maybe::orThrow);
+    }
+    final String key = MemberSearchIndex.normalize(prefix);
+    return this.members.all()
+      .filter(member -> MemberSearchIndex.normalize(member.user().username()).startsWith(key) || member.nick().map(nick -> MemberSearchIndex.normalize(nick).startsWith(key)).orDefault(false))
+      .limit(limit);
+  }
+
+  public void memberAdded(final @Snowflake long member) {
+    if(this.searchIndex != null) {
+      this.context.client().user(member).ifJust(this.searchIndex::add);
+    }
+  }
+
+  public void memberRemoved(final @Snowflake long member) {
+    this.permissionCache.invalidateMember(member);
+    if(this.searchIndex != null) {
+      this.searchIndex.remove(member);
+    }
+  }
+
+  public void memberNickChanged(final @Snowflake long member, final @Nullable String oldNick, final @Nullable String newNick) {
+    if(this.searchIndex != null) {
+      this.searchIndex.nick(member, oldNick, newNick);
+    }
+  }
+
+  public void userRenamed(final @NonNull User user) {
+    if(this.searchIndex != null) {
+      this.searchIndex.rename(user); // only members are indexed
+    }
+  }
+
+  /**
+   * Finds the cached messages in this guild containing every word of a query, ignoring case.
+   *
+   * <p>Nothing is found unless {@link net.kyori.polar.PolarConfiguration#messageSearchIndex()} is enabled.</p>
+   *
+   * @param query the query
+   * @param limit the maximum number of messages to find
+   * @return a stream of the snowflake ids of the messages found, newest first
+   */
+  public @NonNull LongStream searchMessages(final @NonNull String query, final int limit) {
+    if(this.messageIndex == null) {
+      return LongStream.empty();
+    }
+    return Arrays.stream(this.messageIndex.search(query, limit));
+  }
+
+  /**
+   * Finds the cached messages in this guild containing the words of a phrase in sequence, ignoring case.
+   *
+   * <p>Nothing is found unless {@link net.kyori.polar.PolarConfiguration#messageSearchIndex()} is enabled.</p>
+   *
+   * @param phrase the phrase
+   * @param limit the maximum number of messages to find
+   * @return a stream of the snowflake ids of the messages found, newest first
+   */
+  public @NonNull LongStream searchMessagePhrase(final @NonNull String phrase, final int limit) {
+    if(this.messageIndex == null) {
+      return LongStream.empty();
+    }
+    return Arrays.stream(this.messageIndex.searchPhrase(phrase, limit));
+  }
+
+  public void messageCached(final @NonNull Message message) {
+    if(this.messageIndex != null) {
+      this.messageIndex.put(message.id(), message.content());
+    }
+  }
+
+  public void messageUncached(final @Snowflake long message) {
+    if(this.messageIndex != null) {
+      this.messageIndex.remove(message);
+    }
+  }
+
+  public void memberRolesChanged(final @Snowflake long member, final @NonNull RoleSet oldRoles, final @NonNull RoleSet newRoles) {
+    if(oldRoles != newRoles) {
+      this.permissionCache.invalidateMember(member);
+    }
+    if(this.roleIndex != null) {
+      this.roleIndex.update(member, oldRoles, newRoles);
+    }
+  }
+
+  public @NonNull RoleSet internRoles(final @NonNull RoleSet roles) {
+    if(roles.isEmpty()) {
+      return RoleSet.EMPTY;
+    }
+    return this.roleSets.intern(roles);
   }
 
   @Override
@@ -233,11 +412,174 @@ public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshabl
   public @NonNull Role putRole(final JsonObject json) {
     final Role role = this.factories.role(this, json);
     this.roles.put(Json.needLong(json, "id"), role);
+    this.hierarchy(hierarchy -> hierarchy.with((RoleImpl) role));
+    this.permissionCache.invalidateAll();
     return role;
   }
 
   public @NonNull Maybe<Role> removeRole(final @Snowflake long id) {
-    return Maybe.maybe(this.roles.remove(id));
+    if(this.roleIndex != null) {
+      this.roleIndex.removeRole(id);
+    }
+    final @Nullable Role role = this.roles.remove(id);
+    this.hierarchy(hierarchy -> hierarchy.without(id));
+    this.permissionCache.invalidateAll();
+    return Maybe.maybe(role);
+  }
+
+  public void rolePositionChanged(final @NonNull RoleImpl role) {
+    this.hierarchy(hierarchy -> hierarchy.with(role));
+  }
+
+  private synchronized void hierarchy(final UnaryOperator<RoleHierarchy> update) {
+    this.hierarchy = update.apply(this.hierarchy);
+  }
+
+  /**
+   * Gets a stream of the roles of this guild, from highest to lowest.
+   *
+   * @return a stream of roles
+   */
+  public @NonNull Stream<Role> hierarchy() {
+    return this.hierarchy.descending();
+  }
+
+  /**
+   * Gets the highest role of a member, which is the {@code @everyone} role if the member has no other roles.
+   *
+   * @param member the member's snowflake id
+   * @return the highest role
+   */
+  public @NonNull Maybe<Role> highestRole(final @Snowflake long member) {
+    final RoleHierarchy hierarchy = this.hierarchy;
+    return this.members.roles(member).flatMap(roles -> Maybe.<Role>maybe(hierarchy.at(this.highestRank(hierarchy, roles))));
+  }
+
+  /**
+   * Compares two roles by their place in the hierarchy.
+   *
+   * @param role the role's snowflake id
+   * @param other the other role's snowflake id
+   * @return a negative number, zero or a positive number as {@code role} is below, equal to or above {@code other}
+   */
+  public int compareRoles(final @Snowflake long role, final @Snowflake long other) {
+    final RoleHierarchy hierarchy = this.hierarchy;
+    return Integer.compare(hierarchy.rank(role), hierarchy.rank(other));
+  }
+
+  /**
+   * Tests if a member is placed above another, by owner status and then by highest role.
+   *
+   * @param moderator the moderating member's snowflake id
+   * @param target the target member's snowflake id
+   * @return {@code true} if {@code moderator} can moderate {@code target}
+   */
+  public boolean canModerate(final @Snowflake long moderator, final @Snowflake long target) {
+    if(moderator == target || target == this.owner) {
+      return false;
+    }
+    if(moderator == this.owner) {
+      return true;
+    }
+    final RoleHierarchy hierarchy = this.hierarchy;
+    final @Nullable RoleSet moderatorRoles = this.members.roles(moderator).orDefault(null);
+    final @Nullable RoleSet targetRoles = this.members.roles(target).orDefault(null);
+    if(moderatorRoles == null || targetRoles == null) {
+      return false;
+    }
+    return this.highestRank(hierarchy, moderatorRoles) > this.highestRank(hierarchy, targetRoles);
+  }
+
+  private int highestRank(final RoleHierarchy hierarchy, final RoleSet roles) {
+    final int rank = hierarchy.highestRank(roles);
+    return rank != RoleHierarchy.NO_RANK ? rank : hierarchy.rank(this.id);
+  }
+
+  public void rolePermissionsChanged() {
+    this.permissionCache.invalidateAll();
+  }
+
+  public void channelPermissionsChanged(final @Snowflake long channel) {
+    this.permissionCache.invalidateChannel(channel);
+  }
+
+  /**
+   * Gets the guild-level permissions of a member.
+   *
+   * @param member the member's snowflake id
+   * @return the permission flags, or {@link Permissions#NONE} if the member is unknown
+   * @see Permissions
+   */
+  public long permissions(final @Snowflake long member) {
+    long permissions = this.permissionCache.get(member);
+    if(permissions == PermissionCache.MISSING) {
+      final long generation = this.permissionCache.generation();
+      permissions = this.computePermissions(member);
+      if(permissions == PermissionCache.MISSING) {
+        return Permissions.NONE;
+      }
+      this.permissionCache.put(generation, member, permissions);
+    }
+    return permissions;
+  }
+
+  /**
+   * Gets the permissions of a member in a channel of this guild.
+   *
+   * @param member the member's snowflake id
+   * @param channel the channel's snowflake id
+   * @return the permission flags, or {@link Permissions#NONE} if the member or channel is unknown
+   * @see Permissions
+   */
+  public long permissions(final @Snowflake long member, final @Snowflake long channel) {
+    long permissions = this.permissionCache.get(member, channel);
+    if(permissions == PermissionCache.MISSING) {
+      final long generation = this.permissionCache.generation();
+      permissions = this.computePermissions(member, channel);
+      if(permissions == PermissionCache.MISSING) {
+        return Permissions.NONE;
+      }
+      this.permissionCache.put(generation, member, channel, permissions);
+    }
+    return permissions;
+  }
+
+  private long computePermissions(final @Snowflake long member) {
+    if(member == this.owner) {
+      return Permissions.ALL;
+    }
+    final @Nullable RoleSet roles = this.members.roles(member).orDefault(null);
+    if(roles == null) {
+      return PermissionCache.MISSING;
+    }
+    // the @everyone role shares the guild's id
+    final long permissions = roles.stream().reduce(this.rolePermissions(this.id), (result, role) -> result | this.rolePermissions(role));
+    if(Permissions.has(permissions, Permissions.ADMINISTRATOR)) {
+      return Permissions.ALL;
+    }
+    return permissions;
+  }
+
+  private long computePermissions(final @Snowflake long member, final @Snowflake long channel) {
+    final long base = this.permissions(member);
+    if(Permissions.has(base, Permissions.ADMINISTRATOR)) {
+      return Permissions.ALL;
+    }
+    final @Nullable Channel target = this.channels.get(channel);
+    final @Nullable RoleSet roles = this.members.roles(member).orDefault(null);
+    if(!(target instanceof Overwritable) || roles == null) {
+      return PermissionCache.MISSING;
+    }
+    final long permissions = ((Overwritable) target).overwrites().apply(this.id, base, roles, member);
+    if(!Permissions.has(permissions, Permissions.VIEW_CHANNEL)) {
+      return Permissions.NONE;
+    }
+    return permissions;
+  }
+
+  private long rolePermissions(final @Snowflake long role) {
+    final @Nullable Role value = this.roles.get(role);
+    return value != null ? ((RoleImpl) value).permissions() : Permissions.NONE;
   }
 
   @Override
@@ -250,10 +592,14 @@ public final class GuildImpl extends SnowflakedImpl implements Guild, Refreshabl
     GuildImpl create(final @NonNull JsonObject json);
   }
 
-  private final class EmojiRefresher {
-    final Long2ObjectMap<CustomEmoji> emojis = GuildImpl.this.emojis;
+  private static final class EmojiRefresher {
+    final Long2ObjectMap<CustomEmoji> emojis;
     final LongSet encountered = new LongArraySet();
 
+    EmojiRefresher(final Long2ObjectMap<CustomEmoji> emojis) {
+      this.emojis = emojis;
+    }
+
     void refresh(final JsonObject json) {
       final CustomEmojiImpl emoji = this.emoji(json);
       emoji.name(Json.needString(json, "name"));
@@ -23,10 +23,6 @@
  */
 package net.kyori.polar.guild;
 
-import net.kyori.polar.guild.channel.GuildTextChannelImpl;
-import net.kyori.polar.guild.channel.GuildVoiceChannelImpl;
-import net.kyori.polar.guild.member.MemberImpl;
-import net.kyori.polar.guild.role.RoleImpl;
 import net.kyori.violet.AbstractModule;
 
 public final class GuildModule extends AbstractModule {
@@ -34,9 +30,5 @@ public final class GuildModule extends AbstractModule {
   protected void configure() {
     this.bind(GuildFactories.class).to(GuildFactoriesImpl.class);
     this.installFactory(GuildImpl.Factory.class);
-    this.installFactory(GuildTextChannelImpl.Factory.class);
-    this.installFactory(GuildVoiceChannelImpl.Factory.class);
-    this.installFactory(MemberImpl.Factory.class);
-    this.installFactory(RoleImpl.Factory.class);
   }
 }
@@ -51,5 +51,6 @@ final class GuildRefresher extends Refresher<GuildImpl, RefreshContext<GuildImpl
         return newName;
       }
     });
+    this.field(GuildImpl::owner, json -> Json.needLong(json, "owner_id"), GuildImpl::owner);
   }
 }
@@ -0,0 +1,138 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.kassel.user.User;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A prefix search index over the lowercased usernames and nicks of the members of a guild.
+ */
+final class MemberSearchIndex {
+  // usernames and nicks are kept apart so a nick equal to a username can be removed on its own
+  private final NavigableMap<String, LongSet> usernames = new TreeMap<>();
+  private final NavigableMap<String, LongSet> nicks = new TreeMap<>();
+  // member -> the username it is indexed under, so it can be unindexed by id whatever its user is called by then
+  private final Long2ObjectMap<String> indexedUsernames = new Long2ObjectOpenHashMap<>();
+
+  /**
+   * Indexes the username of a member that has been added.
+   *
+   * <p>The username is read under the index lock, so it is never older than a rename that has already looked for
+   * this member in the index.</p>
+   *
+   * @param user the user of the member
+   */
+  synchronized void add(final @NonNull User user) {
+    final String username = user.username();
+    update(this.usernames, user.id(), this.indexedUsernames.put(user.id(), username), username);
+  }
+
+  /**
+   * Unindexes the username of a member that has been removed.
+   *
+   * @param member the member
+   */
+  synchronized void remove(final @Snowflake long member) {
+    update(this.usernames, member, this.indexedUsernames.remove(member), null);
+  }
+
+  /**
+   * Reindexes the username of a user that has been renamed, if they are a member.
+   *
+   * @param user the user
+   */
+  synchronized void rename(final @NonNull User user) {
+    final @Nullable String oldName = this.indexedUsernames.get(user.id());
+    if(oldName != null) {
+      final String newName = user.username();
+      this.indexedUsernames.put(user.id(), newName);
+      update(this.usernames, user.id(), oldName, newName);
+    }
+  }
+
+  synchronized void nick(final @Snowflake long member, final @Nullable String oldNick, final @Nullable String newNick) {
+    update(this.nicks, member, oldNick, newNick);
+  }
+
+  /**
+   * Finds the members whose username or nick starts with {@code prefix}, ignoring case.
+   *
+   * @param prefix the prefix
+   * @param limit the maximum number of members to find
+   * @return the snowflake ids of the members found
+   */
+  synchronized long[] search(final @NonNull String prefix, final int limit) {
+    final String key = normalize(prefix);
+    final LongSet found = new LongLinkedOpenHashSet();
+    collect(this.usernames, key, limit, found);
+    collect(this.nicks, key, limit, found);
+    return found.toLongArray();
+  }
+
+  private static void update(final NavigableMap<String, LongSet> names, final @Snowflake long member, final @Nullable String oldName, final @Nullable String newName) {
+    if(Objects.equals(oldName, newName)) {
+      return;
+    }
+    if(oldName != null) {
+      final String key = normalize(oldName);
+      final @Nullable LongSet members = names.get(key);
+      if(members != null && members.remove(member) && members.isEmpty()) {
+        names.remove(key);
+      }
+    }
+    if(newName != null) {
+      names.computeIfAbsent(normalize(newName), key -> new LongOpenHashSet(1)).add(member);
+    }
+  }
+
+  private static void collect(final NavigableMap<String, LongSet> names, final String prefix, final int limit, final LongSet found) {
+    for(final Map.Entry<String, LongSet> entry : names.tailMap(prefix, true).entrySet()) {
+      if(found.size() >= limit || !entry.getKey().startsWith(prefix)) {
+        return;
+      }
+      final LongIterator it = entry.getValue().iterator();
+      while(it.hasNext() && found.size() < limit) {
+        found.add(it.nextLong());
+      }
+    }
+  }
+
+  static @NonNull String normalize(final @NonNull String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+}
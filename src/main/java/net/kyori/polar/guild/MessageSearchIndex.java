@@ -0,0 +1,162 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongComparators;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.kyori.kassel.snowflake.Snowflake;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An inverted index over the content of the cached messages of a guild.
+ *
+ * <p>Content is split into lowercased runs of letters and digits. Each message
+ * keeps its token sequence so that phrase queries can be verified.</p>
+ */
+final class MessageSearchIndex {
+  private static final long[] NO_MESSAGES = new long[0];
+  private final Map<String, LongSet> postings = new HashMap<>();
+  private final Long2ObjectMap<String[]> documents = new Long2ObjectOpenHashMap<>();
+
+  synchronized void put(final @Snowflake long id, final @NonNull String content) {
+    this.remove(id);
+    final String[] tokens = tokenize(content);
+    if(tokens.length == 0) {
+      return;
+    }
+    this.documents.put(id, tokens);
+    for(final String token : tokens) {
+      this.postings.computeIfAbsent(token, key -> new LongOpenHashSet()).add(id);
+    }
+  }
+
+  synchronized void remove(final @Snowflake long id) {
+    final String @Nullable [] tokens = this.documents.remove(id);
+    if(tokens == null) {
+      return;
+    }
+    for(final String token : tokens) {
+      final @Nullable LongSet messages = this.postings.get(token);
+      if(messages != null && messages.remove(id) && messages.isEmpty()) {
+        this.postings.remove(token);
+      }
+    }
+  }
+
+  /**
+   * Finds the messages containing every token of {@code query}, newest first.
+   *
+   * @param query the query
+   * @param limit the maximum number of messages to find
+   * @return the snowflake ids of the messages found
+   */
+  synchronized long[] search(final @NonNull String query, final int limit) {
+    return this.find(tokenize(query), false, limit);
+  }
+
+  /**
+   * Finds the messages containing the tokens of {@code phrase} in sequence, newest first.
+   *
+   * @param phrase the phrase
+   * @param limit the maximum number of messages to find
+   * @return the snowflake ids of the messages found
+   */
+  synchronized long[] searchPhrase(final @NonNull String phrase, final int limit) {
+    return this.find(tokenize(phrase), true, limit);
+  }
+
+  private long[] find(final String[] terms, final boolean phrase, final int limit) {
+    if(terms.length == 0 || limit <= 0) {
+      return NO_MESSAGES;
+    }
+    final List<LongSet> postings = new ArrayList<>(terms.length);
+    for(final String term : new LinkedHashSet<>(Arrays.asList(terms))) {
+      final @Nullable LongSet messages = this.postings.get(term);
+      if(messages == null) {
+        return NO_MESSAGES;
+      }
+      postings.add(messages);
+    }
+    postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+    final LongList found = new LongArrayList();
+    candidates:
+    for(final LongIterator it = postings.get(0).iterator(); it.hasNext(); ) {
+      final @Snowflake long id = it.nextLong();
+      for(int i = 1; i < postings.size(); i++) {
+        if(!postings.get(i).contains(id)) {
+          continue candidates;
+        }
+      }
+      if(!phrase || containsSequence(this.documents.get(id), terms)) {
+        found.add(id);
+      }
+    }
+    found.sort(LongComparators.OPPOSITE_COMPARATOR);
+    return found.size() > limit ? found.subList(0, limit).toLongArray() : found.toLongArray();
+  }
+
+  private static boolean containsSequence(final String[] tokens, final String[] terms) {
+    outer:
+    for(int i = 0; i <= tokens.length - terms.length; i++) {
+      for(int j = 0; j < terms.length; j++) {
+        if(!tokens[i + j].equals(terms[j])) {
+          continue outer;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static String[] tokenize(final @NonNull String text) {
+    final List<String> tokens = new ArrayList<>();
+    int start = -1;
+    for(int i = 0, length = text.length(); i <= length; i++) {
+      if(i < length && Character.isLetterOrDigit(text.charAt(i))) {
+        if(start < 0) {
+          start = i;
+        }
+      } else if(start >= 0) {
+        tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return tokens.toArray(new String[0]);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild;
+
+import it.unimi.dsi.fastutil.longs.Long2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.kyori.kassel.snowflake.Snowflake;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Memoized effective permissions of the members of a guild, at guild level and per channel.
+ *
+ * <p>Every invalidation bumps a generation, and a computed value is only kept if
+ * no invalidation happened while it was being computed.</p>
+ *
+ * <p>Guild level permissions are kept for every member, but each channel only keeps
+ * its {@value #CHANNEL_CAPACITY} most recently used members.</p>
+ */
+final class PermissionCache {
+  static final long MISSING = -1;
+  static final int CHANNEL_CAPACITY = 1024;
+  private final Long2LongMap guild = missing(new Long2LongOpenHashMap());
+  private final Long2ObjectMap<Long2LongLinkedOpenHashMap> channels = new Long2ObjectOpenHashMap<>();
+  private long generation;
+
+  synchronized long generation() {
+    return this.generation;
+  }
+
+  synchronized long get(final @Snowflake long member) {
+    return this.guild.get(member);
+  }
+
+  synchronized void put(final long generation, final @Snowflake long member, final long permissions) {
+    if(generation == this.generation) {
+      this.guild.put(member, permissions);
+    }
+  }
+
+  synchronized long get(final @Snowflake long member, final @Snowflake long channel) {
+    final @Nullable Long2LongLinkedOpenHashMap members = this.channels.get(channel);
+    return members != null ? members.getAndMoveToLast(member) : MISSING;
+  }
+
+  synchronized void put(final long generation, final @Snowflake long member, final @Snowflake long channel, final long permissions) {
+    if(generation == this.generation) {
+      @Nullable Long2LongLinkedOpenHashMap members = this.channels.get(channel);
+      if(members == null) {
+        members = missing(new Long2LongLinkedOpenHashMap());
+        this.channels.put(channel, members);
+      }
+      members.putAndMoveToLast(member, permissions);
+      if(members.size() > CHANNEL_CAPACITY) {
+        members.removeFirstLong(); // least recently used
+      }
+    }
+  }
+
+  synchronized void invalidateMember(final @Snowflake long member) {
+    this.generation++;
+    this.guild.remove(member);
+    for(final Long2LongMap members : this.channels.values()) {
+      members.remove(member);
+    }
+  }
+
+  synchronized void invalidateChannel(final @Snowflake long channel) {
+    this.generation++;
+    this.channels.remove(channel);
+  }
+
+  synchronized void invalidateAll() {
+    this.generation++;
+    this.guild.clear();
+    this.channels.clear();
+  }
+
+  private static <M extends Long2LongMap> M missing(final M map) {
+    map.defaultReturnValue(MISSING);
+    return map;
+  }
+}
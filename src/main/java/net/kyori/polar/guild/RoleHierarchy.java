@@ -0,0 +1,107 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import net.kyori.kassel.guild.role.Role;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.polar.guild.member.RoleSet;
+import net.kyori.polar.guild.role.RoleImpl;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable snapshot of the roles of a guild, sorted from lowest to highest.
+ *
+ * <p>Roles are ordered by position, and roles sharing a position by descending id.</p>
+ */
+final class RoleHierarchy {
+  static final RoleHierarchy EMPTY = new RoleHierarchy(new RoleImpl[0]);
+  static final int NO_RANK = -1;
+  private static final Comparator<RoleImpl> ORDER = Comparator.comparingInt(RoleImpl::position)
+    .thenComparing(Comparator.comparingLong(RoleImpl::id).reversed());
+  private final RoleImpl[] roles;
+  private final Long2IntMap ranks;
+
+  private RoleHierarchy(final RoleImpl[] roles) {
+    this.roles = roles;
+    this.ranks = new Long2IntOpenHashMap(roles.length);
+    this.ranks.defaultReturnValue(NO_RANK);
+    for(int i = 0; i < roles.length; i++) {
+      this.ranks.put(roles[i].id(), i);
+    }
+  }
+
+  /**
+   * Creates a hierarchy with {@code role} in its current position, replacing any previous entry for it.
+   *
+   * @param role the role
+   * @return the new hierarchy
+   */
+  @NonNull RoleHierarchy with(final @NonNull RoleImpl role) {
+    final RoleImpl[] roles = this.without(role.id()).roles;
+    int index = Arrays.binarySearch(roles, role, ORDER);
+    if(index < 0) {
+      index = -index - 1;
+    }
+    final RoleImpl[] result = new RoleImpl[roles.length + 1];
+    System.arraycopy(roles, 0, result, 0, index);
+    result[index] = role;
+    System.arraycopy(roles, index, result, index + 1, roles.length - index);
+    return new RoleHierarchy(result);
+  }
+
+  @NonNull RoleHierarchy without(final @Snowflake long role) {
+    final int index = this.ranks.get(role);
+    if(index == NO_RANK) {
+      return this;
+    }
+    final RoleImpl[] result = new RoleImpl[this.roles.length - 1];
+    System.arraycopy(this.roles, 0, result, 0, index);
+    System.arraycopy(this.roles, index + 1, result, index, this.roles.length - index - 1);
+    return new RoleHierarchy(result);
+  }
+
+  int rank(final @Snowflake long role) {
+    return this.ranks.get(role);
+  }
+
+  int highestRank(final @NonNull RoleSet roles) {
+    return roles.stream().mapToInt(this.ranks::get).max().orElse(NO_RANK);
+  }
+
+  @Nullable RoleImpl at(final int rank) {
+    return rank >= 0 && rank < this.roles.length ? this.roles[rank] : null;
+  }
+
+  @NonNull Stream<Role> descending() {
+    final int last = this.roles.length - 1;
+    return IntStream.rangeClosed(0, last).mapToObj(rank -> this.roles[last - rank]);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.polar.guild.member.RoleSet;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An index from role id to the ids of the members holding that role.
+ */
+final class RoleIndex {
+  private static final long[] NO_MEMBERS = new long[0];
+  private final Long2ObjectMap<LongSet> members;
+
+  RoleIndex(final int roles) {
+    this.members = new Long2ObjectOpenHashMap<>(roles);
+  }
+
+  synchronized void update(final @Snowflake long member, final @NonNull RoleSet oldRoles, final @NonNull RoleSet newRoles) {
+    if(oldRoles == newRoles) {
+      return;
+    }
+    oldRoles.stream().filter(role -> !newRoles.contains(role)).forEach(role -> {
+      final @Nullable LongSet members = this.members.get(role);
+      if(members != null && members.remove(member) && members.isEmpty()) {
+        this.members.remove(role);
+      }
+    });
+    newRoles.stream().filter(role -> !oldRoles.contains(role)).forEach(role -> {
+      @Nullable LongSet members = this.members.get(role);
+      if(members == null) {
+        members = new LongOpenHashSet();
+        this.members.put(role, members);
+      }
+      members.add(member);
+    });
+  }
+
+  synchronized void removeRole(final @Snowflake long role) {
+    this.members.remove(role);
+  }
+
+  synchronized long[] members(final @Snowflake long role) {
+    final @Nullable LongSet members = this.members.get(role);
+    return members != null ? members.toLongArray() : NO_MEMBERS;
+  }
+}
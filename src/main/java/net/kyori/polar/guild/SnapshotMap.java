@@ -0,0 +1,114 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import net.kyori.kassel.snowflake.Snowflake;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A copy-on-write map from snowflake ids to values.
+ *
+ * <p>Every change publishes a new immutable snapshot, so reads and streams never lock and never observe a
+ * change in progress. Changes are serialized and copy the whole map - batch them with {@link #update(Consumer)}.</p>
+ *
+ * @param <V> the value type
+ */
+final class SnapshotMap<V> {
+  private final Object lock = new Object();
+  private volatile Snapshot<V> snapshot;
+
+  SnapshotMap(final int expected) {
+    this.snapshot = new Snapshot<>(new Long2ObjectOpenHashMap<>(expected));
+  }
+
+  @Nullable V get(final @Snowflake long id) {
+    return this.snapshot.map.get(id);
+  }
+
+  int size() {
+    return this.snapshot.values.length;
+  }
+
+  /**
+   * Gets a stream over the values at the time of the call.
+   *
+   * <p>The stream is backed by an immutable array, and so is safe to consume in parallel.</p>
+   *
+   * @return a stream of values
+   */
+  @NonNull Stream<V> stream() {
+    return Arrays.stream(this.snapshot.values);
+  }
+
+  @Nullable V put(final @Snowflake long id, final @NonNull V value) {
+    synchronized(this.lock) {
+      final Long2ObjectOpenHashMap<V> map = new Long2ObjectOpenHashMap<>(this.snapshot.map);
+      final @Nullable V previous = map.put(id, value);
+      this.snapshot = new Snapshot<>(map);
+      return previous;
+    }
+  }
+
+  @Nullable V remove(final @Snowflake long id) {
+    synchronized(this.lock) {
+      if(!this.snapshot.map.containsKey(id)) {
+        return null;
+      }
+      final Long2ObjectOpenHashMap<V> map = new Long2ObjectOpenHashMap<>(this.snapshot.map);
+      final @Nullable V previous = map.remove(id);
+      this.snapshot = new Snapshot<>(map);
+      return previous;
+    }
+  }
+
+  /**
+   * Applies a batch of changes to a copy of the map, and publishes the result as a single snapshot.
+   *
+   * @param changes the changes
+   */
+  void update(final @NonNull Consumer<Long2ObjectMap<V>> changes) {
+    synchronized(this.lock) {
+      final Long2ObjectOpenHashMap<V> map = new Long2ObjectOpenHashMap<>(this.snapshot.map);
+      changes.accept(map);
+      this.snapshot = new Snapshot<>(map);
+    }
+  }
+
+  private static final class Snapshot<V> {
+    final Long2ObjectOpenHashMap<V> map;
+    final V[] values;
+
+    @SuppressWarnings("unchecked")
+    Snapshot(final Long2ObjectOpenHashMap<V> map) {
+      this.map = map;
+      this.values = (V[]) map.values().toArray();
+    }
+  }
+}
@@ -23,21 +23,33 @@
  */
 package net.kyori.polar.guild.channel;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.channel.GuildChannelCategory;
 import net.kyori.peppermint.Json;
+import net.kyori.polar.guild.GuildImpl;
+import net.kyori.polar.guild.permission.Overwritable;
+import net.kyori.polar.guild.permission.PermissionOverwrites;
+import net.kyori.polar.refresh.Refreshable;
 import net.kyori.polar.snowflake.SnowflakedImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-public final class GuildChannelCategoryImpl extends SnowflakedImpl implements GuildChannelCategory {
-  private final Guild guild;
+public final class GuildChannelCategoryImpl extends SnowflakedImpl implements GuildChannelCategory, Overwritable, Refreshable {
+  private final GuildImpl guild;
   private @NonNull String name;
+  private @NonNull PermissionOverwrites overwrites;
 
-  public GuildChannelCategoryImpl(final @NonNull Guild guild, final @NonNull JsonObject json) {
+  public GuildChannelCategoryImpl(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
     super(Json.needLong(json, "id"));
     this.guild = guild;
-    this.name = Json.needString(json, "name");
+    this.name = guild.context().strings().intern(Json.needString(json, "name"));
+    this.overwrites = PermissionOverwrites.of(json);
+  }
+
+  @Override
+  public void refresh(final JsonElement json) {
+    this.guild.context().refresher(GuildChannelCategoryRefresher.class).refresh(() -> this, json);
   }
 
   @Override
@@ -49,4 +61,14 @@ public final class GuildChannelCategoryImpl extends SnowflakedImpl implements Gu
   public @NonNull String name() {
     return this.name;
   }
+
+  @Override
+  public @NonNull PermissionOverwrites overwrites() {
+    return this.overwrites;
+  }
+
+  void overwrites(final @NonNull PermissionOverwrites overwrites) {
+    this.overwrites = overwrites;
+    this.guild.channelPermissionsChanged(this.id());
+  }
 }
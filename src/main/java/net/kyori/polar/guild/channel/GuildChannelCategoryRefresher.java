@@ -21,37 +21,17 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-package net.kyori.polar.util;
+package net.kyori.polar.guild.channel;
 
-import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
-
-import static com.google.common.base.Preconditions.checkState;
-
-@SuppressWarnings("serial")
-public final class BoundedLong2ObjectLinkedOpenHashMap<V> extends Long2ObjectLinkedOpenHashMap<V> {
-  private final int maxSize;
-
-  public static <V> Long2ObjectMap<V> sync(final int maxSize) {
-    return Long2ObjectMaps.synchronize(new BoundedLong2ObjectLinkedOpenHashMap<>(maxSize));
-  }
-
-  public BoundedLong2ObjectLinkedOpenHashMap(final int maxSize) {
-    checkState(maxSize > 0, "maxSize <= 0");
-    this.maxSize = maxSize;
-  }
+import javax.inject.Singleton;
+import net.kyori.polar.guild.permission.PermissionOverwrites;
+import net.kyori.polar.refresh.RefreshContext;
+import net.kyori.polar.refresh.Refresher;
 
+@Singleton
+final class GuildChannelCategoryRefresher extends Refresher<GuildChannelCategoryImpl, RefreshContext<GuildChannelCategoryImpl>> {
   @Override
-  public V put(final long key, final V value) {
-    final V oldValue = super.put(key, value);
-    this.shrink();
-    return oldValue;
-  }
-
-  private void shrink() {
-    if(this.size > this.maxSize) {
-      this.removeFirst();
-    }
+  protected void register() {
+    this.field(GuildChannelCategoryImpl::overwrites, json -> PermissionOverwrites.of(json), GuildChannelCategoryImpl::overwrites);
   }
 }
@@ -26,9 +26,10 @@ package net.kyori.polar.guild.channel;
 import com.google.common.base.MoreObjects;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
-import javax.inject.Inject;
+import java.util.stream.Stream;
 import net.kyori.kassel.channel.message.Message;
 import net.kyori.kassel.channel.message.embed.Embed;
 import net.kyori.kassel.guild.Guild;
@@ -36,33 +37,42 @@ import net.kyori.kassel.guild.channel.GuildTextChannel;
 import net.kyori.kassel.snowflake.Snowflake;
 import net.kyori.mu.Maybe;
 import net.kyori.peppermint.Json;
+import net.kyori.polar.PolarContext;
+import net.kyori.polar.channel.MessageCacheListener;
 import net.kyori.polar.channel.TextChannelImpl;
+import net.kyori.polar.guild.GuildImpl;
+import net.kyori.polar.guild.permission.Overwritable;
+import net.kyori.polar.guild.permission.PermissionOverwrites;
 import net.kyori.polar.refresh.Refreshable;
 import net.kyori.polar.snowflake.SnowflakedImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-public final class GuildTextChannelImpl extends SnowflakedImpl implements GuildTextChannel, Refreshable {
+public final class GuildTextChannelImpl extends SnowflakedImpl implements GuildTextChannel, MessageCacheListener, Overwritable, PolarContext.Holder, Refreshable {
   private static final int MAX_CACHED_MESSAGES = 20;
-  private final GuildTextChannelRefresher refresher;
   private final TextChannelImpl textChannel;
-  private final Guild guild;
+  private final GuildImpl guild;
   private @NonNull String name;
   private @Nullable String topic;
+  private @NonNull PermissionOverwrites overwrites;
 
-  @Inject
-  private GuildTextChannelImpl(final GuildTextChannelRefresher refresher, final TextChannelImpl.Factory textChannel, final @Assisted Guild guild, final @Assisted JsonObject json) {
+  public GuildTextChannelImpl(final TextChannelImpl.@NonNull Factory textChannel, final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
     super(Json.needLong(json, "id"));
-    this.refresher = refresher;
     this.textChannel = textChannel.create(this, MAX_CACHED_MESSAGES);
     this.guild = guild;
-    this.name = Json.needString(json, "name");
+    this.name = guild.context().strings().intern(Json.needString(json, "name"));
     this.topic = Json.getString(json, "topic", null);
+    this.overwrites = PermissionOverwrites.of(json);
+  }
+
+  @Override
+  public @NonNull PolarContext context() {
+    return this.guild.context();
   }
 
   @Override
   public void refresh(final JsonElement json) {
-    this.refresher.refresh(new GuildTextChannelRefresher.Context() {
+    this.context().refresher(GuildTextChannelRefresher.class).refresh(new GuildTextChannelRefresher.Context() {
       @Override
       public @NonNull Guild guild() {
         return GuildTextChannelImpl.this.guild;
@@ -89,6 +99,16 @@ public final class GuildTextChannelImpl extends SnowflakedImpl implements GuildT
     this.name = name;
   }
 
+  @Override
+  public @NonNull PermissionOverwrites overwrites() {
+    return this.overwrites;
+  }
+
+  void overwrites(final @NonNull PermissionOverwrites overwrites) {
+    this.overwrites = overwrites;
+    this.guild.channelPermissionsChanged(this.id());
+  }
+
   @Override
   public @NonNull Maybe<String> topic() {
     return Maybe.maybe(this.topic);
@@ -107,6 +127,36 @@ public final class GuildTextChannelImpl extends SnowflakedImpl implements GuildT
     return this.textChannel.removeMessage(id);
   }
 
+  public void clearMessages() {
+    this.textChannel.clearMessages();
+  }
+
+  @Override
+  public void messageCached(final @NonNull Message message) {
+    this.guild.messageCached(message);
+  }
+
+  @Override
+  public void messageUncached(final @Snowflake long id) {
+    this.guild.messageUncached(id);
+  }
+
+  public @NonNull Stream<Message> messagesAfter(final @Snowflake long id) {
+    return this.textChannel.messagesAfter(id);
+  }
+
+  public @NonNull Stream<Message> messagesSince(final @NonNull Instant instant) {
+    return this.textChannel.messagesSince(instant);
+  }
+
+  public @NonNull Stream<Message> messagesWithin(final @NonNull Duration duration) {
+    return this.textChannel.messagesWithin(duration);
+  }
+
+  public @NonNull Stream<Message> latestMessages(final @Snowflake long author, final int limit) {
+    return this.textChannel.latestMessages(author, limit);
+  }
+
   @Override
   public @NonNull CompletableFuture<Message> message(final @Nullable String content, final @Nullable Embed embed) {
     return this.textChannel.message(content, embed);
@@ -118,8 +168,4 @@ public final class GuildTextChannelImpl extends SnowflakedImpl implements GuildT
       .add("name", this.name)
       .add("topic", this.topic);
   }
-
-  public interface Factory {
-    GuildTextChannelImpl create(final Guild guild, final JsonObject json);
-  }
 }
@@ -26,31 +26,31 @@ package net.kyori.polar.guild.channel;
 import com.google.common.base.MoreObjects;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
-import javax.inject.Inject;
 import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.channel.GuildVoiceChannel;
 import net.kyori.peppermint.Json;
+import net.kyori.polar.guild.GuildImpl;
+import net.kyori.polar.guild.permission.Overwritable;
+import net.kyori.polar.guild.permission.PermissionOverwrites;
 import net.kyori.polar.refresh.Refreshable;
 import net.kyori.polar.snowflake.SnowflakedImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-public final class GuildVoiceChannelImpl extends SnowflakedImpl implements GuildVoiceChannel, Refreshable {
-  private final GuildVoiceChannelRefresher refresher;
-  private final Guild guild;
+public final class GuildVoiceChannelImpl extends SnowflakedImpl implements GuildVoiceChannel, Overwritable, Refreshable {
+  private final GuildImpl guild;
   private @NonNull String name;
+  private @NonNull PermissionOverwrites overwrites;
 
-  @Inject
-  private GuildVoiceChannelImpl(final GuildVoiceChannelRefresher refresher, final @Assisted Guild guild, final @Assisted JsonObject json) {
+  public GuildVoiceChannelImpl(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
     super(Json.needLong(json, "id"));
-    this.refresher = refresher;
     this.guild = guild;
-    this.name = Json.needString(json, "name");
+    this.name = guild.context().strings().intern(Json.needString(json, "name"));
+    this.overwrites = PermissionOverwrites.of(json);
   }
 
   @Override
   public void refresh(final JsonElement json) {
-    this.refresher.refresh(new GuildVoiceChannelRefresher.Context() {
+    this.guild.context().refresher(GuildVoiceChannelRefresher.class).refresh(new GuildVoiceChannelRefresher.Context() {
       @Override
       public @NonNull Guild guild() {
         return GuildVoiceChannelImpl.this.guild;
@@ -77,13 +77,19 @@ public final class GuildVoiceChannelImpl extends SnowflakedImpl implements Guild
     this.name = name;
   }
 
+  @Override
+  public @NonNull PermissionOverwrites overwrites() {
+    return this.overwrites;
+  }
+
+  void overwrites(final @NonNull PermissionOverwrites overwrites) {
+    this.overwrites = overwrites;
+    this.guild.channelPermissionsChanged(this.id());
+  }
+
   @Override
   protected MoreObjects.ToStringHelper toStringer() {
     return super.toStringer()
       .add("name", this.name);
   }
-
-  public interface Factory {
-    GuildVoiceChannelImpl create(final Guild guild, final JsonObject json);
-  }
 }
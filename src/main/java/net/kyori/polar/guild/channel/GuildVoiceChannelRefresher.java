@@ -28,6 +28,7 @@ import net.kyori.kassel.channel.Channel;
 import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.channel.event.GuildChannelNameChangeEvent;
 import net.kyori.peppermint.Json;
+import net.kyori.polar.guild.permission.PermissionOverwrites;
 import net.kyori.polar.refresh.RefreshContext;
 import net.kyori.polar.refresh.Refresher;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -36,7 +37,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 final class GuildVoiceChannelRefresher extends Refresher<GuildVoiceChannelImpl, GuildVoiceChannelRefresher.Context> {
   @Override
   protected void register() {
-    this.field(GuildVoiceChannelImpl::name, json -> Json.needString(json, "name"), GuildVoiceChannelImpl::name, (context, oldName, newName) -> new GuildChannelNameChangeEvent() {
+    this.field(GuildVoiceChannelImpl::name, json -> this.strings.intern(Json.needString(json, "name")), GuildVoiceChannelImpl::name, (context, oldName, newName) -> new GuildChannelNameChangeEvent() {
       @Override
       public @NonNull Guild guild() {
         return context.guild();
@@ -57,6 +58,7 @@ final class GuildVoiceChannelRefresher extends Refresher<GuildVoiceChannelImpl,
         return newName;
       }
     });
+    this.field(GuildVoiceChannelImpl::overwrites, json -> PermissionOverwrites.of(json), GuildVoiceChannelImpl::overwrites);
   }
 
   interface Context extends RefreshContext<GuildVoiceChannelImpl> {
@@ -0,0 +1,122 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.member;
+
+import com.google.common.base.MoreObjects;
+import com.google.gson.JsonElement;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.kyori.kassel.guild.Guild;
+import net.kyori.kassel.guild.member.Member;
+import net.kyori.kassel.guild.role.Role;
+import net.kyori.mu.Maybe;
+import net.kyori.polar.client.ClientImpl;
+import net.kyori.polar.http.endpoint.Endpoints;
+import net.kyori.polar.refresh.Refreshable;
+import net.kyori.polar.util.Equality;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * The shared behaviour of members, regardless of how their state is stored.
+ */
+abstract class AbstractMember implements Member, Refreshable {
+  abstract @NonNull ClientImpl client();
+
+  abstract @NonNull MemberRefresher refresher();
+
+  abstract void nick(final @NonNull Maybe<String> nick);
+
+  abstract @NonNull RoleSet roleSet();
+
+  abstract void roles(final @NonNull RoleSet roles);
+
+  @Override
+  public void refresh(final JsonElement json) {
+    this.refresher().refresh(new MemberRefresher.Context() {
+      @Override
+      public @NonNull Guild guild() {
+        return AbstractMember.this.guild();
+      }
+
+      @Override
+      public @NonNull AbstractMember target() {
+        return AbstractMember.this;
+      }
+    }, json);
+  }
+
+  @Override
+  public @NonNull Roles roles() {
+    return new RolesImpl();
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    return Equality.equals(AbstractMember.class, this, other, that -> this.guild().id() == that.guild().id() && this.user().id() == that.user().id());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.user().id());
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+      .add("user", this.user())
+      .add("nick", this.nick().orDefault(null))
+      .add("roles", this.roles().all().collect(Collectors.toSet()))
+      .toString();
+  }
+
+  final class RolesImpl implements Roles {
+    @Override
+    public @NonNull Stream<Role> all() {
+      final Guild guild = AbstractMember.this.guild();
+      return AbstractMember.this.roleSet().stream()
+        .mapToObj(guild::role)
+        .filter(Maybe::isJust)
+        .map(Maybe::orThrow);
+    }
+
+    @Override
+    public void add(final @NonNull Role role) {
+      final ClientImpl client = AbstractMember.this.client();
+      client.executor().submit(() -> {
+        client.httpClient().json(Endpoints.guildMemberRole(AbstractMember.this.guild().id(), AbstractMember.this.user().id(), role.id()).request(builder -> builder.put(RequestBody.create(null, new byte[0]))));
+      });
+    }
+
+    @Override
+    public void remove(final @NonNull Role role) {
+      final ClientImpl client = AbstractMember.this.client();
+      client.executor().submit(() -> {
+        client.httpClient().json(Endpoints.guildMemberRole(AbstractMember.this.guild().id(), AbstractMember.this.user().id(), role.id()).request(Request.Builder::delete));
+      });
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.member;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import net.kyori.kassel.guild.Guild;
+import net.kyori.kassel.guild.member.Member;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.kassel.user.User;
+import net.kyori.mu.Maybe;
+import net.kyori.polar.PolarContext;
+import net.kyori.polar.client.ClientImpl;
+import net.kyori.polar.guild.GuildImpl;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A member store keeping member state in parallel arrays keyed by user id.
+ *
+ * <p>No object is retained per member - {@link Member} views are created on demand
+ * and read through to the store.</p>
+ */
+public final class CompactMemberStore implements MemberStore {
+  private static final int NO_SLOT = -1;
+  private final PolarContext context;
+  private final GuildImpl guild;
+  private final Long2IntMap slots;
+  private final IntArrayList freeSlots = new IntArrayList();
+  private @Nullable String[] nicks;
+  private RoleSet[] roles;
+  private int nextSlot;
+
+  public CompactMemberStore(final @NonNull GuildImpl guild, final int expected) {
+    this.context = guild.context();
+    this.guild = guild;
+    final int capacity = Math.max(expected, 16);
+    this.slots = new Long2IntOpenHashMap(capacity);
+    this.slots.defaultReturnValue(NO_SLOT);
+    this.nicks = new String[capacity];
+    this.roles = new RoleSet[capacity];
+  }
+
+  @Override
+  public synchronized @NonNull Maybe<Member> get(final @Snowflake long id) {
+    final int slot = this.slots.get(id);
+    if(slot == NO_SLOT) {
+      return Maybe.nothing();
+    }
+    // users are never forgotten by the client, so every stored member has one
+    return this.context.client().user(id).map(user -> new LiveMember(user, this.nicks[slot], this.roles[slot]));
+  }
+
+  @Override
+  public synchronized @NonNull Maybe<RoleSet> roles(final @Snowflake long id) {
+    final int slot = this.slots.get(id);
+    return slot != NO_SLOT ? Maybe.just(this.roles[slot]) : Maybe.nothing();
+  }
+
+  @Override
+  public @NonNull Member put(final @NonNull JsonObject json) {
+    final User user = this.context.client().userOrCreate(json.getAsJsonObject("user"));
+    final @Nullable String nick = MemberBatch.nick(this.context, json);
+    final RoleSet roles = MemberBatch.roles(this.guild, json);
+    this.put(user.id(), nick, roles);
+    return new LiveMember(user, nick, roles);
+  }
+
+  @Override
+  public void putAll(final @NonNull JsonArray json) {
+    final MemberBatch batch = MemberBatch.decode(this.guild, json);
+    synchronized(this) {
+      for(int i = 0, size = batch.size(); i < size; i++) {
+        this.put(batch.users[i].id(), batch.nicks[i], batch.roles[i]);
+      }
+    }
+  }
+
+  private synchronized void put(final @Snowflake long id, final @Nullable String nick, final @NonNull RoleSet roles) {
+    int slot = this.slots.get(id);
+    final @Nullable String oldNick;
+    final RoleSet oldRoles;
+    if(slot == NO_SLOT) {
+      slot = this.allocate();
+      this.slots.put(id, slot);
+      oldNick = null;
+      oldRoles = RoleSet.EMPTY;
+      this.guild.memberAdded(id);
+    } else {
+      oldNick = this.nicks[slot];
+      oldRoles = this.roles[slot];
+    }
+    this.nicks[slot] = nick;
+    this.roles[slot] = roles;
+    this.guild.memberNickChanged(id, oldNick, nick);
+    this.guild.memberRolesChanged(id, oldRoles, roles);
+  }
+
+  @Override
+  public synchronized @NonNull Maybe<Member> remove(final @Snowflake long id) {
+    final int slot = this.slots.remove(id);
+    if(slot == NO_SLOT) {
+      return Maybe.nothing();
+    }
+    final Maybe<Member> member = this.context.client().user(id).map(user -> new LiveMember(user, this.nicks[slot], this.roles[slot]));
+    this.guild.memberRemoved(id);
+    this.guild.memberNickChanged(id, this.nicks[slot], null);
+    this.guild.memberRolesChanged(id, this.roles[slot], RoleSet.EMPTY);
+    this.nicks[slot] = null;
+    this.roles[slot] = null;
+    this.freeSlots.add(slot);
+    return member;
+  }
+
+  @Override
+  public synchronized int size() {
+    return this.slots.size();
+  }
+
+  @Override
+  public @NonNull Stream<Member> all() {
+    final long[] members;
+    synchronized(this) {
+      members = this.slots.keySet().toLongArray();
+    }
+    return this.views(members);
+  }
+
+  @Override
+  public @NonNull Stream<Member> withRole(final @Snowflake long role) {
+    final LongList members = new LongArrayList();
+    synchronized(this) {
+      this.slots.long2IntEntrySet().forEach(entry -> {
+        if(this.roles[entry.getIntValue()].contains(role)) {
+          members.add(entry.getLongKey());
+        }
+      });
+    }
+    return this.views(members.toLongArray());
+  }
+
+  /**
+   * Creates views of members lazily, as the stream is consumed, skipping any that have left by then.
+   *
+   * @param members the members
+   * @return a stream of views
+   */
+  private Stream<Member> views(final long[] members) {
+    return Arrays.stream(members)
+      .mapToObj(this::get)
+      .filter(Maybe::isJust)
+      .map(Maybe::orThrow);
+  }
+
+  private int allocate() {
+    if(!this.freeSlots.isEmpty()) {
+      return this.freeSlots.popInt();
+    }
+    if(this.nextSlot == this.roles.length) {
+      final int capacity = this.roles.length + (this.roles.length >> 1);
+      this.nicks = Arrays.copyOf(this.nicks, capacity);
+      this.roles = Arrays.copyOf(this.roles, capacity);
+    }
+    return this.nextSlot++;
+  }
+
+  /**
+   * A view reading through to the store while the member is stored.
+   *
+   * <p>Once the member leaves, the view keeps answering with the last state it saw, and takes updates to that state
+   * without touching the store, like a {@link MemberImpl} would.</p>
+   */
+  private final class LiveMember extends AbstractMember {
+    private final User user;
+    // guarded by the store
+    private @Nullable String nick;
+    private RoleSet roles;
+
+    LiveMember(final @NonNull User user, final @Nullable String nick, final @NonNull RoleSet roles) {
+      this.user = user;
+      this.nick = nick;
+      this.roles = roles;
+    }
+
+    @Override
+    @NonNull ClientImpl client() {
+      return CompactMemberStore.this.context.client();
+    }
+
+    @Override
+    @NonNull MemberRefresher refresher() {
+      return CompactMemberStore.this.context.refresher(MemberRefresher.class);
+    }
+
+    @Override
+    public @NonNull Guild guild() {
+      return CompactMemberStore.this.guild;
+    }
+
+    @Override
+    public @NonNull User user() {
+      return this.user;
+    }
+
+    @Override
+    public @NonNull Maybe<String> nick() {
+      synchronized(CompactMemberStore.this) {
+        final int slot = CompactMemberStore.this.slots.get(this.user.id());
+        if(slot != NO_SLOT) {
+          this.nick = CompactMemberStore.this.nicks[slot];
+        }
+        return Maybe.maybe(this.nick);
+      }
+    }
+
+    @Override
+    void nick(final @NonNull Maybe<String> nick) {
+      synchronized(CompactMemberStore.this) {
+        final int slot = CompactMemberStore.this.slots.get(this.user.id());
+        if(slot != NO_SLOT) {
+          CompactMemberStore.this.guild.memberNickChanged(this.user.id(), CompactMemberStore.this.nicks[slot], nick.orDefault(null));
+          CompactMemberStore.this.nicks[slot] = nick.orDefault(null);
+        }
+        this.nick = nick.orDefault(null);
+      }
+    }
+
+    @Override
+    @NonNull RoleSet roleSet() {
+      synchronized(CompactMemberStore.this) {
+        final int slot = CompactMemberStore.this.slots.get(this.user.id());
+        if(slot != NO_SLOT) {
+          this.roles = CompactMemberStore.this.roles[slot];
+        }
+        return this.roles;
+      }
+    }
+
+    @Override
+    void roles(final @NonNull RoleSet roles) {
+      final RoleSet interned = CompactMemberStore.this.guild.internRoles(roles);
+      synchronized(CompactMemberStore.this) {
+        final int slot = CompactMemberStore.this.slots.get(this.user.id());
+        if(slot != NO_SLOT) {
+          CompactMemberStore.this.guild.memberRolesChanged(this.user.id(), CompactMemberStore.this.roles[slot], interned);
+          CompactMemberStore.this.roles[slot] = interned;
+        }
+        this.roles = interned;
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.member;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.stream.IntStream;
+import net.kyori.kassel.user.User;
+import net.kyori.peppermint.Json;
+import net.kyori.polar.PolarContext;
+import net.kyori.polar.guild.GuildImpl;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Member payloads decoded into their parts, ready to be put into a {@link MemberStore}.
+ *
+ * <p>Users are looked up and created as a batch, after which large payloads are
+ * decoded in parallel on the common fork-join pool.</p>
+ */
+final class MemberBatch {
+  final User[] users;
+  final @Nullable String[] nicks;
+  final RoleSet[] roles;
+  private final GuildImpl guild;
+  private final PolarContext context;
+  private final JsonArray json;
+
+  private MemberBatch(final GuildImpl guild, final JsonArray json) {
+    this.guild = guild;
+    this.context = guild.context();
+    this.json = json;
+    final JsonObject[] users = new JsonObject[json.size()];
+    for(int i = 0; i < users.length; i++) {
+      users[i] = json.get(i).getAsJsonObject().getAsJsonObject("user");
+    }
+    this.users = this.context.client().usersOrCreate(users);
+    this.nicks = new String[json.size()];
+    this.roles = new RoleSet[json.size()];
+  }
+
+  static @NonNull MemberBatch decode(final @NonNull GuildImpl guild, final @NonNull JsonArray json) {
+    final MemberBatch batch = new MemberBatch(guild, json);
+    final IntStream indices = IntStream.range(0, json.size());
+    if(json.size() >= batch.context.configuration().parallelMemberThreshold()) {
+      indices.parallel().forEach(batch::decode);
+    } else {
+      indices.forEach(batch::decode);
+    }
+    return batch;
+  }
+
+  int size() {
+    return this.users.length;
+  }
+
+  private void decode(final int index) {
+    final JsonObject json = this.json.get(index).getAsJsonObject();
+    this.nicks[index] = nick(this.context, json);
+    this.roles[index] = roles(this.guild, json);
+  }
+
+  static @Nullable String nick(final @NonNull PolarContext context, final @NonNull JsonObject json) {
+    return context.strings().intern(Json.getString(json, "nick", null));
+  }
+
+  static @NonNull RoleSet roles(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
+    if(Json.isArray(json, "roles")) {
+      return guild.internRoles(RoleSet.of(json.getAsJsonArray("roles")));
+    }
+    return RoleSet.EMPTY;
+  }
+}
@@ -23,66 +23,42 @@
  */
 package net.kyori.polar.guild.member;
 
-import com.google.common.base.MoreObjects;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
-import it.unimi.dsi.fastutil.longs.LongArraySet;
-import it.unimi.dsi.fastutil.longs.LongSet;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import javax.inject.Inject;
 import net.kyori.kassel.guild.Guild;
-import net.kyori.kassel.guild.member.Member;
-import net.kyori.kassel.guild.role.Role;
 import net.kyori.kassel.user.User;
 import net.kyori.mu.Maybe;
-import net.kyori.peppermint.Json;
 import net.kyori.polar.client.ClientImpl;
-import net.kyori.polar.guild.role.RoleImpl;
-import net.kyori.polar.http.endpoint.Endpoints;
-import net.kyori.polar.refresh.Refreshable;
-import net.kyori.polar.util.Equality;
-import okhttp3.Request;
-import okhttp3.RequestBody;
+import net.kyori.polar.guild.GuildImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-public final class MemberImpl implements Member, Refreshable {
-  final RolesImpl roles = new RolesImpl();
-  private final ClientImpl client;
-  private final MemberRefresher refresher;
-  private final Guild guild;
+public final class MemberImpl extends AbstractMember {
+  private final SimpleMemberStore store;
+  private final GuildImpl guild;
   private final User user;
   private @Nullable String nick;
+  private @NonNull RoleSet roles;
 
-  @Inject
-  private MemberImpl(final ClientImpl client, final MemberRefresher refresher, final @Assisted Guild guild, final @Assisted JsonObject json) {
-    this.client = client;
-    this.refresher = refresher;
-    this.guild = guild;
-    this.user = client.userOrCreate(json.getAsJsonObject("user"));
-    this.nick = Json.getString(json, "nick", null);
+  MemberImpl(final SimpleMemberStore store, final GuildImpl guild, final JsonObject json) {
+    this(store, guild, guild.context().client().userOrCreate(json.getAsJsonObject("user")), MemberBatch.nick(guild.context(), json), MemberBatch.roles(guild, json));
+  }
 
-    if(Json.isArray(json, "roles")) {
-      this.roles.set(RoleImpl.roles(json.getAsJsonArray("roles")));
-    }
+  MemberImpl(final SimpleMemberStore store, final GuildImpl guild, final User user, final @Nullable String nick, final @NonNull RoleSet roles) {
+    this.store = store;
+    this.guild = guild;
+    this.user = user;
+    this.nick = nick;
+    this.roles = roles;
   }
 
   @Override
-  public void refresh(final JsonElement json) {
-    this.refresher.refresh(new MemberRefresher.Context() {
-      @Override
-      public @NonNull Guild guild() {
-        return MemberImpl.this.guild;
-      }
+  @NonNull ClientImpl client() {
+    return this.guild.context().client();
+  }
 
-      @Override
-      public @NonNull MemberImpl target() {
-        return MemberImpl.this;
-      }
-    }, json);
+  @Override
+  @NonNull MemberRefresher refresher() {
+    return this.guild.context().refresher(MemberRefresher.class);
   }
 
   @Override
@@ -100,70 +76,20 @@ public final class MemberImpl implements Member, Refreshable {
     return Maybe.maybe(this.nick);
   }
 
+  @Override
   void nick(final @NonNull Maybe<String> nick) {
-    this.nick = nick.orDefault(null);
+    final @Nullable String newNick = nick.orDefault(null);
+    this.store.update(this, () -> this.guild.memberNickChanged(this.user.id(), this.nick, newNick), () -> this.nick = newNick);
   }
 
   @Override
-  public @NonNull Roles roles() {
+  @NonNull RoleSet roleSet() {
     return this.roles;
   }
 
-  void roles(final @NonNull LongSet roles) {
-    this.roles.set(roles);
-  }
-
-  @Override
-  public boolean equals(final Object other) {
-    return Equality.equals(this, other, that -> this.guild.id() == that.guild.id() && this.user.id() == that.user.id());
-  }
-
   @Override
-  public int hashCode() {
-    return Objects.hash(this.user.id());
-  }
-
-  @Override
-  public String toString() {
-    return MoreObjects.toStringHelper(this)
-      .add("user", this.user)
-      .add("nick", this.nick)
-      .add("roles", this.roles.all().collect(Collectors.toSet()))
-      .toString();
-  }
-
-  final class RolesImpl implements Roles {
-    final LongSet roles = new LongArraySet();
-
-    @Override
-    public @NonNull Stream<Role> all() {
-      return this.roles.stream()
-        .map(MemberImpl.this.guild::role)
-        .filter(Maybe::isJust)
-        .map(Maybe::orThrow);
-    }
-
-    @Override
-    public void add(final @NonNull Role role) {
-      MemberImpl.this.client.executor().submit(() -> {
-        MemberImpl.this.client.httpClient().json(Endpoints.guildMemberRole(MemberImpl.this.guild.id(), MemberImpl.this.user.id(), role.id()).request(builder -> builder.put(RequestBody.create(null, new byte[0]))));
-      });
-    }
-
-    @Override
-    public void remove(final @NonNull Role role) {
-      MemberImpl.this.client.executor().submit(() -> {
-        MemberImpl.this.client.httpClient().json(Endpoints.guildMemberRole(MemberImpl.this.guild.id(), MemberImpl.this.user.id(), role.id()).request(Request.Builder::delete));
-      });
-    }
-
-    void set(final @NonNull LongSet roles) {
-      this.roles.clear();
-      this.roles.addAll(roles);
-    }
-  }
-
-  public interface Factory {
-    MemberImpl create(final Guild guild, final JsonObject json);
+  void roles(final @NonNull RoleSet roles) {
+    final RoleSet interned = this.guild.internRoles(roles);
+    this.store.update(this, () -> this.guild.memberRolesChanged(this.user.id(), this.roles, interned), () -> this.roles = interned);
   }
 }
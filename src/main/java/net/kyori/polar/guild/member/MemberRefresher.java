@@ -23,9 +23,6 @@
  */
 package net.kyori.polar.guild.member;
 
-import com.google.common.collect.Sets;
-import it.unimi.dsi.fastutil.longs.LongArraySet;
-import java.util.Set;
 import javax.inject.Singleton;
 import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.member.Member;
@@ -35,17 +32,15 @@ import net.kyori.kassel.guild.member.event.GuildMemberRoleRemoveEvent;
 import net.kyori.kassel.guild.role.Role;
 import net.kyori.mu.Maybe;
 import net.kyori.peppermint.Json;
-import net.kyori.polar.guild.GuildImpl;
-import net.kyori.polar.guild.role.RoleImpl;
 import net.kyori.polar.refresh.RefreshContext;
 import net.kyori.polar.refresh.Refresher;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 @Singleton
-final class MemberRefresher extends Refresher<MemberImpl, MemberRefresher.Context> {
+final class MemberRefresher extends Refresher<AbstractMember, MemberRefresher.Context> {
   @Override
   protected void register() {
-    this.field(MemberImpl::nick, json -> Maybe.maybe(Json.getString(json, "nick", null)), MemberImpl::nick, (context, oldNick, newNick) -> new GuildMemberNickChangeEvent() {
+    this.field(AbstractMember::nick, json -> Maybe.maybe(this.strings.intern(Json.getString(json, "nick", null))), AbstractMember::nick, (context, oldNick, newNick) -> new GuildMemberNickChangeEvent() {
       @Override
       public @NonNull Guild guild() {
         return context.guild();
@@ -66,14 +61,10 @@ final class MemberRefresher extends Refresher<MemberImpl, MemberRefresher.Contex
         return newNick;
       }
     });
-    this.complexField(member -> new LongArraySet(member.roles.roles), json -> {
-      return RoleImpl.roles(json.getAsJsonArray("roles"));
-    }, MemberImpl::roles, (context, oldValue, newValue) -> {
+    this.complexField(AbstractMember::roleSet, json -> RoleSet.of(json.getAsJsonArray("roles")), AbstractMember::roles, (context, oldValue, newValue) -> {
       final Guild guild = context.guild();
       final Member member = context.target();
-      final Set<Role> oldRoles = GuildImpl.roles(guild, oldValue.toLongArray());
-      final Set<Role> newRoles = GuildImpl.roles(guild, newValue.toLongArray());
-      Sets.difference(newRoles, oldRoles).forEach(role -> this.bus.post(new GuildMemberRoleAddEvent() {
+      newValue.stream().filter(id -> !oldValue.contains(id)).mapToObj(guild::role).filter(Maybe::isJust).map(Maybe::orThrow).forEach(role -> this.bus.post(new GuildMemberRoleAddEvent() {
         @Override
         public @NonNull Guild guild() {
           return guild;
@@ -89,7 +80,7 @@ final class MemberRefresher extends Refresher<MemberImpl, MemberRefresher.Contex
           return role;
         }
       }));
-      Sets.difference(oldRoles, newRoles).forEach(role -> this.bus.post(new GuildMemberRoleRemoveEvent() {
+      oldValue.stream().filter(id -> !newValue.contains(id)).mapToObj(guild::role).filter(Maybe::isJust).map(Maybe::orThrow).forEach(role -> this.bus.post(new GuildMemberRoleRemoveEvent() {
         @Override
         public @NonNull Guild guild() {
           return guild;
@@ -108,7 +99,7 @@ final class MemberRefresher extends Refresher<MemberImpl, MemberRefresher.Contex
     });
   }
 
-  interface Context extends RefreshContext<MemberImpl> {
+  interface Context extends RefreshContext<AbstractMember> {
     @NonNull Guild guild();
   }
 }
@@ -0,0 +1,101 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.member;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.stream.Stream;
+import net.kyori.kassel.guild.member.Member;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.mu.Maybe;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A store of the members of a guild.
+ *
+ * <p>Members are put and removed from a gateway dispatch thread while being
+ * read from any thread, so stores must be safe for use from several threads.</p>
+ */
+public interface MemberStore {
+  /**
+   * Gets a member by its user's snowflake id.
+   *
+   * @param id the snowflake id
+   * @return the member
+   */
+  @NonNull Maybe<Member> get(final @Snowflake long id);
+
+  /**
+   * Gets the roles of a member by its user's snowflake id.
+   *
+   * @param id the snowflake id
+   * @return the member's roles
+   */
+  @NonNull Maybe<RoleSet> roles(final @Snowflake long id);
+
+  /**
+   * Creates or replaces a member.
+   *
+   * @param json the json
+   * @return the member
+   */
+  @NonNull Member put(final @NonNull JsonObject json);
+
+  /**
+   * Creates or replaces many members at once.
+   *
+   * @param json the json
+   */
+  void putAll(final @NonNull JsonArray json);
+
+  /**
+   * Removes a member by its user's snowflake id.
+   *
+   * @param id the snowflake id
+   * @return the member
+   */
+  @NonNull Maybe<Member> remove(final @Snowflake long id);
+
+  /**
+   * Gets a stream of the members holding a role, by scanning every member.
+   *
+   * @param role the role's snowflake id
+   * @return a stream of the members holding the role
+   */
+  @NonNull Stream<Member> withRole(final @Snowflake long role);
+
+  /**
+   * Gets the number of members.
+   *
+   * @return the number of members
+   */
+  int size();
+
+  /**
+   * Gets a stream of all members.
+   *
+   * @return a stream of all members
+   */
+  @NonNull Stream<Member> all();
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.member;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.peppermint.Json;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An immutable set of role ids.
+ *
+ * <p>Role sets are canonicalized per guild, so members sharing a combination of
+ * roles share a single instance.</p>
+ */
+public final class RoleSet {
+  public static final RoleSet EMPTY = new RoleSet(new long[0]);
+  private final long[] roles; // sorted, without duplicates
+  private final int hash;
+
+  public static @NonNull RoleSet of(final @NonNull JsonArray array) {
+    if(array.size() == 0) {
+      return EMPTY;
+    }
+    final long[] roles = new long[array.size()];
+    int i = 0;
+    for(final JsonElement role : array) {
+      roles[i++] = Json.needLong(role, "id");
+    }
+    return create(roles);
+  }
+
+  public static @NonNull RoleSet of(final @Snowflake long... roles) {
+    if(roles.length == 0) {
+      return EMPTY;
+    }
+    return create(roles.clone());
+  }
+
+  private static RoleSet create(final long[] roles) {
+    Arrays.sort(roles);
+    int size = 1;
+    for(int i = 1; i < roles.length; i++) {
+      if(roles[i] != roles[size - 1]) {
+        roles[size++] = roles[i];
+      }
+    }
+    return new RoleSet(size == roles.length ? roles : Arrays.copyOf(roles, size));
+  }
+
+  private RoleSet(final long[] roles) {
+    this.roles = roles;
+    this.hash = Arrays.hashCode(roles);
+  }
+
+  public boolean contains(final @Snowflake long role) {
+    return Arrays.binarySearch(this.roles, role) >= 0;
+  }
+
+  public boolean isEmpty() {
+    return this.roles.length == 0;
+  }
+
+  public int size() {
+    return this.roles.length;
+  }
+
+  public @NonNull LongStream stream() {
+    return Arrays.stream(this.roles);
+  }
+
+  public long[] toLongArray() {
+    return this.roles.clone();
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if(this == other) {
+      return true;
+    }
+    if(!(other instanceof RoleSet)) {
+      return false;
+    }
+    final RoleSet that = (RoleSet) other;
+    return this.hash == that.hash && Arrays.equals(this.roles, that.roles);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hash;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(this.roles);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.member;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+import net.kyori.kassel.guild.member.Member;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.mu.Maybe;
+import net.kyori.peppermint.Json;
+import net.kyori.polar.guild.GuildImpl;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A member store holding a {@link MemberImpl} per member.
+ */
+public final class SimpleMemberStore implements MemberStore {
+  private final GuildImpl guild;
+  private final Long2ObjectMap<Member> members;
+
+  public SimpleMemberStore(final @NonNull GuildImpl guild, final int expected) {
+    this.guild = guild;
+    this.members = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>(Math.max(expected, 0)));
+  }
+
+  @Override
+  public @NonNull Maybe<Member> get(final @Snowflake long id) {
+    return Maybe.maybe(this.members.get(id));
+  }
+
+  @Override
+  public @NonNull Maybe<RoleSet> roles(final @Snowflake long id) {
+    final @Nullable Member member = this.members.get(id);
+    return member != null ? Maybe.just(((MemberImpl) member).roleSet()) : Maybe.nothing();
+  }
+
+  @Override
+  public @NonNull Member put(final @NonNull JsonObject json) {
+    final MemberImpl member = new MemberImpl(this, this.guild, json);
+    final @Snowflake long id = Json.needLong(json.getAsJsonObject("user"), "id");
+    synchronized(this.members) {
+      this.changed(id, this.members.put(id, member), member);
+    }
+    return member;
+  }
+
+  @Override
+  public void putAll(final @NonNull JsonArray json) {
+    final MemberBatch batch = MemberBatch.decode(this.guild, json);
+    final MemberImpl[] members = new MemberImpl[batch.size()];
+    for(int i = 0; i < members.length; i++) {
+      members[i] = new MemberImpl(this, this.guild, batch.users[i], batch.nicks[i], batch.roles[i]);
+    }
+    synchronized(this.members) {
+      for(int i = 0; i < members.length; i++) {
+        final @Snowflake long id = batch.users[i].id();
+        this.changed(id, this.members.put(id, members[i]), members[i]);
+      }
+    }
+  }
+
+  @Override
+  public @NonNull Maybe<Member> remove(final @Snowflake long id) {
+    synchronized(this.members) {
+      final @Nullable Member member = this.members.remove(id);
+      this.changed(id, member, null);
+      return Maybe.maybe(member);
+    }
+  }
+
+  @Override
+  public @NonNull Stream<Member> withRole(final @Snowflake long role) {
+    return this.all().filter(member -> ((MemberImpl) member).roleSet().contains(role));
+  }
+
+  @Override
+  public int size() {
+    return this.members.size();
+  }
+
+  @Override
+  public @NonNull Stream<Member> all() {
+    synchronized(this.members) {
+      return new ArrayList<>(this.members.values()).stream();
+    }
+  }
+
+  /**
+   * Applies a change to a member under the store lock, telling the guild about it only if the member is still stored.
+   *
+   * <p>A member replaced by a chunk, or removed, must not touch the guild's indexes any more.</p>
+   *
+   * @param member the member
+   * @param index tells the guild about the change
+   * @param apply applies the change to the member
+   */
+  void update(final @NonNull MemberImpl member, final @NonNull Runnable index, final @NonNull Runnable apply) {
+    synchronized(this.members) {
+      if(this.members.get(member.user().id()) == member) {
+        index.run();
+      }
+      apply.run();
+    }
+  }
+
+  private void changed(final @Snowflake long id, final @Nullable Member oldMember, final @Nullable Member newMember) {
+    if(oldMember == null && newMember != null) {
+      this.guild.memberAdded(id);
+    } else if(oldMember != null && newMember == null) {
+      this.guild.memberRemoved(id);
+    }
+    this.guild.memberNickChanged(id, nick(oldMember), nick(newMember));
+    this.guild.memberRolesChanged(id, roles(oldMember), roles(newMember));
+  }
+
+  private static @Nullable String nick(final @Nullable Member member) {
+    return member != null ? member.nick().orDefault(null) : null;
+  }
+
+  private static @NonNull RoleSet roles(final @Nullable Member member) {
+    return member != null ? ((MemberImpl) member).roleSet() : RoleSet.EMPTY;
+  }
+}
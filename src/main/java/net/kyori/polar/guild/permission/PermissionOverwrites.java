@@ -0,0 +1,161 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.permission;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectSortedMap;
+import java.util.Arrays;
+import net.kyori.kassel.snowflake.Snowflake;
+import net.kyori.peppermint.Json;
+import net.kyori.polar.guild.member.RoleSet;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The permission overwrites of a guild channel.
+ *
+ * <p>Role and member overwrites are kept in parallel arrays sorted by snowflake id.</p>
+ */
+public final class PermissionOverwrites {
+  public static final PermissionOverwrites EMPTY = new PermissionOverwrites(new long[0], new long[0], new long[0], new long[0], new long[0], new long[0]);
+  private final long[] roles;
+  private final long[] roleAllow;
+  private final long[] roleDeny;
+  private final long[] members;
+  private final long[] memberAllow;
+  private final long[] memberDeny;
+
+  private PermissionOverwrites(final long[] roles, final long[] roleAllow, final long[] roleDeny, final long[] members, final long[] memberAllow, final long[] memberDeny) {
+    this.roles = roles;
+    this.roleAllow = roleAllow;
+    this.roleDeny = roleDeny;
+    this.members = members;
+    this.memberAllow = memberAllow;
+    this.memberDeny = memberDeny;
+  }
+
+  public static @NonNull PermissionOverwrites of(final @NonNull JsonObject json) {
+    if(!Json.isArray(json, "permission_overwrites")) {
+      return EMPTY;
+    }
+    return of(json.getAsJsonArray("permission_overwrites"));
+  }
+
+  public static @NonNull PermissionOverwrites of(final @NonNull JsonArray json) {
+    if(json.size() == 0) {
+      return EMPTY;
+    }
+    final Long2ObjectSortedMap<long[]> roles = new Long2ObjectAVLTreeMap<>();
+    final Long2ObjectSortedMap<long[]> members = new Long2ObjectAVLTreeMap<>();
+    for(final JsonElement element : json) {
+      final JsonObject overwrite = element.getAsJsonObject();
+      final long[] bits = {Json.needLong(overwrite, "allow"), Json.needLong(overwrite, "deny")};
+      (isRole(overwrite.get("type")) ? roles : members).put(Json.needLong(overwrite, "id"), bits);
+    }
+    return new PermissionOverwrites(
+      roles.keySet().toLongArray(), column(roles, 0), column(roles, 1),
+      members.keySet().toLongArray(), column(members, 0), column(members, 1)
+    );
+  }
+
+  // "role" or "member" in v6 of the api, 0 or 1 in later versions
+  private static boolean isRole(final @Nullable JsonElement type) {
+    if(type instanceof JsonPrimitive && ((JsonPrimitive) type).isNumber()) {
+      return type.getAsInt() == 0;
+    }
+    return type != null && "role".equals(type.getAsString());
+  }
+
+  private static long[] column(final Long2ObjectSortedMap<long[]> overwrites, final int index) {
+    return overwrites.values().stream().mapToLong(bits -> bits[index]).toArray();
+  }
+
+  /**
+   * Applies these overwrites to a member's guild-level permissions.
+   *
+   * @param guild the guild's snowflake id, which is also the id of its {@code @everyone} role
+   * @param base the member's guild-level permissions
+   * @param roles the member's roles
+   * @param member the member's snowflake id
+   * @return the member's permissions in the channel
+   */
+  public long apply(final @Snowflake long guild, final long base, final @NonNull RoleSet roles, final @Snowflake long member) {
+    long permissions = base;
+    final int everyone = Arrays.binarySearch(this.roles, guild);
+    if(everyone >= 0) {
+      permissions &= ~this.roleDeny[everyone];
+      permissions |= this.roleAllow[everyone];
+    }
+
+    long allow = Permissions.NONE;
+    long deny = Permissions.NONE;
+    for(int i = 0; i < this.roles.length; i++) {
+      if(i != everyone && roles.contains(this.roles[i])) {
+        allow |= this.roleAllow[i];
+        deny |= this.roleDeny[i];
+      }
+    }
+    permissions &= ~deny;
+    permissions |= allow;
+
+    final int index = Arrays.binarySearch(this.members, member);
+    if(index >= 0) {
+      permissions &= ~this.memberDeny[index];
+      permissions |= this.memberAllow[index];
+    }
+    return permissions;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if(this == other) {
+      return true;
+    }
+    if(!(other instanceof PermissionOverwrites)) {
+      return false;
+    }
+    final PermissionOverwrites that = (PermissionOverwrites) other;
+    return Arrays.equals(this.roles, that.roles)
+      && Arrays.equals(this.roleAllow, that.roleAllow)
+      && Arrays.equals(this.roleDeny, that.roleDeny)
+      && Arrays.equals(this.members, that.members)
+      && Arrays.equals(this.memberAllow, that.memberAllow)
+      && Arrays.equals(this.memberDeny, that.memberDeny);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Arrays.hashCode(this.roles);
+    result = 31 * result + Arrays.hashCode(this.roleAllow);
+    result = 31 * result + Arrays.hashCode(this.roleDeny);
+    result = 31 * result + Arrays.hashCode(this.members);
+    result = 31 * result + Arrays.hashCode(this.memberAllow);
+    result = 31 * result + Arrays.hashCode(this.memberDeny);
+    return result;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.guild.permission;
+
+/**
+ * Discord permission flags, as stored in a role's or overwrite's permission bitset.
+ */
+public final class Permissions {
+  public static final long NONE = 0;
+  public static final long CREATE_INSTANT_INVITE = 1L << 0;
+  public static final long KICK_MEMBERS = 1L << 1;
+  public static final long BAN_MEMBERS = 1L << 2;
+  public static final long ADMINISTRATOR = 1L << 3;
+  public static final long MANAGE_CHANNELS = 1L << 4;
+  public static final long MANAGE_GUILD = 1L << 5;
+  public static final long ADD_REACTIONS = 1L << 6;
+  public static final long VIEW_AUDIT_LOG = 1L << 7;
+  public static final long PRIORITY_SPEAKER = 1L << 8;
+  public static final long STREAM = 1L << 9;
+  public static final long VIEW_CHANNEL = 1L << 10;
+  public static final long SEND_MESSAGES = 1L << 11;
+  public static final long SEND_TTS_MESSAGES = 1L << 12;
+  public static final long MANAGE_MESSAGES = 1L << 13;
+  public static final long EMBED_LINKS = 1L << 14;
+  public static final long ATTACH_FILES = 1L << 15;
+  public static final long READ_MESSAGE_HISTORY = 1L << 16;
+  public static final long MENTION_EVERYONE = 1L << 17;
+  public static final long USE_EXTERNAL_EMOJIS = 1L << 18;
+  public static final long VIEW_GUILD_INSIGHTS = 1L << 19;
+  public static final long CONNECT = 1L << 20;
+  public static final long SPEAK = 1L << 21;
+  public static final long MUTE_MEMBERS = 1L << 22;
+  public static final long DEAFEN_MEMBERS = 1L << 23;
+  public static final long MOVE_MEMBERS = 1L << 24;
+  public static final long USE_VAD = 1L << 25;
+  public static final long CHANGE_NICKNAME = 1L << 26;
+  public static final long MANAGE_NICKNAMES = 1L << 27;
+  public static final long MANAGE_ROLES = 1L << 28;
+  public static final long MANAGE_WEBHOOKS = 1L << 29;
+  public static final long MANAGE_EMOJIS = 1L << 30;
+  public static final long ALL = (1L << 31) - 1;
+
+  private Permissions() {
+  }
+
+  /**
+   * Tests if {@code permissions} contains every flag in {@code required}.
+   *
+   * @param permissions the permissions
+   * @param required the required flags
+   * @return {@code true} if every required flag is present
+   */
+  public static boolean has(final long permissions, final long required) {
+    return (permissions & required) == required;
+  }
+}
@@ -24,23 +24,16 @@
 package net.kyori.polar.guild.role;
 
 import com.google.common.base.MoreObjects;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
-import it.unimi.dsi.fastutil.longs.LongArraySet;
-import it.unimi.dsi.fastutil.longs.LongSet;
 import java.awt.Color;
-import java.util.concurrent.ExecutorService;
-import javax.inject.Inject;
 import net.kyori.kassel.guild.Guild;
 import net.kyori.kassel.guild.role.Role;
 import net.kyori.mu.Maybe;
 import net.kyori.peppermint.Json;
-import net.kyori.polar.ForPolar;
+import net.kyori.polar.PolarContext;
+import net.kyori.polar.guild.GuildImpl;
 import net.kyori.polar.http.HttpClient;
-import net.kyori.polar.http.RateLimitedHttpClient;
 import net.kyori.polar.http.endpoint.Endpoints;
 import net.kyori.polar.refresh.Refreshable;
 import net.kyori.polar.snowflake.SnowflakedImpl;
@@ -50,43 +43,30 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class RoleImpl extends SnowflakedImpl implements Refreshable, Role {
-  private final ExecutorService executor;
-  private final RateLimitedHttpClient httpClient;
-  private final Gson gson;
-  private final RoleRefresher refresher;
-  private final Guild guild;
+  private final GuildImpl guild;
   private @NonNull String name;
   private @Nullable Color color;
   private boolean mentionable;
   private boolean managed;
   private boolean hoist;
+  private long permissions;
+  private int position;
 
-  public static LongSet roles(final JsonArray array) {
-    final LongSet roles = new LongArraySet(array.size());
-    for(final JsonElement role : array) {
-      roles.add(Json.needLong(role, "id"));
-    }
-    return roles;
-  }
-
-  @Inject
-  private RoleImpl(final ExecutorService executor, final RateLimitedHttpClient httpClient, final @ForPolar Gson gson, final RoleRefresher refresher, final @Assisted Guild guild, final @Assisted JsonObject json) {
+  public RoleImpl(final @NonNull GuildImpl guild, final @NonNull JsonObject json) {
     super(Json.needLong(json, "id"));
-    this.executor = executor;
-    this.httpClient = httpClient;
-    this.gson = gson;
-    this.refresher = refresher;
     this.guild = guild;
-    this.name = Json.needString(json, "name");
+    this.name = guild.context().strings().intern(Json.needString(json, "name"));
     this.color = Colors.color(Json.getInt(json, "color", Colors.NOT_SET));
     this.mentionable = Json.needBoolean(json, "mentionable");
     this.managed = Json.needBoolean(json, "managed");
     this.hoist = Json.needBoolean(json, "hoist");
+    this.permissions = Json.needLong(json, "permissions");
+    this.position = Json.needInt(json, "position");
   }
 
   @Override
   public void refresh(final JsonElement json) {
-    this.refresher.refresh(new RoleRefresher.Context() {
+    this.guild.context().refresher(RoleRefresher.class).refresh(new RoleRefresher.Context() {
       @Override
       public @NonNull Guild guild() {
         return RoleImpl.this.guild;
@@ -142,8 +122,9 @@ public final class RoleImpl extends SnowflakedImpl implements Refreshable, Role
 
   @Override
   public void edit(final @NonNull Edit edit) {
-    this.executor.submit(() -> this.httpClient.json(Endpoints.editGuildRole(this.guild.id(), this.id).request(builder -> {
-      final JsonObject json = this.gson.toJsonTree(edit).getAsJsonObject();
+    final PolarContext context = this.guild.context();
+    context.executor().submit(() -> context.httpClient().json(Endpoints.editGuildRole(this.guild.id(), this.id).request(builder -> {
+      final JsonObject json = context.gson().toJsonTree(edit).getAsJsonObject();
       builder.patch(RequestBody.create(HttpClient.JSON_MEDIA_TYPE, json.toString()));
     })));
   }
@@ -152,6 +133,35 @@ public final class RoleImpl extends SnowflakedImpl implements Refreshable, Role
     this.hoist = hoist;
   }
 
+  /**
+   * Gets the permissions granted by this role.
+   *
+   * @return the permission flags
+   * @see net.kyori.polar.guild.permission.Permissions
+   */
+  public long permissions() {
+    return this.permissions;
+  }
+
+  void permissions(final long permissions) {
+    this.permissions = permissions;
+    this.guild.rolePermissionsChanged();
+  }
+
+  /**
+   * Gets the position of this role in the guild's hierarchy, where higher is more senior.
+   *
+   * @return the position
+   */
+  public int position() {
+    return this.position;
+  }
+
+  void position(final int position) {
+    this.position = position;
+    this.guild.rolePositionChanged(this);
+  }
+
   @Override
   protected MoreObjects.ToStringHelper toStringer() {
     return super.toStringer()
@@ -159,10 +169,8 @@ public final class RoleImpl extends SnowflakedImpl implements Refreshable, Role
       .add("color", this.color)
       .add("mentionable", this.mentionable)
       .add("managed", this.managed)
-      .add("hoist", this.hoist);
-  }
-
-  public interface Factory {
-    RoleImpl create(final Guild guild, final JsonObject json);
+      .add("hoist", this.hoist)
+      .add("permissions", this.permissions)
+      .add("position", this.position);
   }
 }
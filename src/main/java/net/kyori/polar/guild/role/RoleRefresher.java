@@ -43,7 +43,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 final class RoleRefresher extends Refresher<RoleImpl, RoleRefresher.Context> {
   @Override
   protected void register() {
-    this.field(RoleImpl::name, json -> Json.needString(json, "name"), RoleImpl::name, (context, oldName, newName) -> new GuildRoleNameChangeEvent() {
+    this.field(RoleImpl::name, json -> this.strings.intern(Json.needString(json, "name")), RoleImpl::name, (context, oldName, newName) -> new GuildRoleNameChangeEvent() {
       @Override
       public @NonNull Guild guild() {
         return context.guild();
@@ -148,6 +148,8 @@ final class RoleRefresher extends Refresher<RoleImpl, RoleRefresher.Context> {
         return newHoist;
       }
     });
+    this.field(RoleImpl::permissions, json -> Json.needLong(json, "permissions"), RoleImpl::permissions);
+    this.field(RoleImpl::position, json -> Json.needInt(json, "position"), RoleImpl::position);
   }
 
   interface Context extends RefreshContext<RoleImpl> {
@@ -27,20 +27,27 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import javax.inject.Inject;
 import net.kyori.mu.Maybe;
 import net.kyori.mu.concurrent.CompletableFutures;
 import net.kyori.polar.Polar;
 import net.kyori.polar.PolarConfiguration;
+import net.kyori.polar.http.endpoint.EndpointRequest;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 abstract class AbstractHttpClient implements HttpClient {
   static final JsonParser PARSER = new JsonParser();
+  private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
   private final PolarConfiguration configuration;
   final OkHttpClient httpClient;
 
@@ -58,6 +65,78 @@ abstract class AbstractHttpClient implements HttpClient {
     return request.build();
   }
 
+  /**
+   * Sends a request, sharing the result with every identical idempotent request sent while it is in flight.
+   *
+   * <p>Each caller receives its own future, but the parsed result is shared and must not be modified. Cancelling
+   * a caller's future cancels the request once no other caller is waiting on it.</p>
+   *
+   * <p>Requests are only merged with requests of the same priority, and requests with a timeout are never merged.</p>
+   *
+   * @param endpoint the endpoint request
+   * @param request the request
+   * @param flags the flags
+   * @param call a function sending the request
+   * @return a future of the response json
+   */
+  final CompletableFuture<Maybe<JsonElement>> json(final @NonNull EndpointRequest endpoint, final @NonNull Request request, final int flags, final Function<Request, CompletableFuture<Response>> call) {
+    final @Nullable String key = key(endpoint, request, flags);
+    if(key == null) {
+      final CompletableFuture<Response> response = call.apply(request);
+      final CompletableFuture<Maybe<JsonElement>> result = this.json(response);
+      result.whenComplete((json, throwable) -> {
+        if(result.isCancelled()) {
+          response.cancel(false);
+        }
+      });
+      return result;
+    }
+    while(true) {
+      final Flight flight = this.inFlight.computeIfAbsent(key, ignored -> new Flight());
+      final @Nullable CompletableFuture<Maybe<JsonElement>> result = flight.join();
+      if(result == null) {
+        this.inFlight.remove(key, flight); // every caller gave up on it
+        continue;
+      }
+      if(flight.lead()) {
+        final CompletableFuture<Response> response = call.apply(request);
+        flight.response = response;
+        this.json(response).whenComplete((json, throwable) -> {
+          this.inFlight.remove(key, flight);
+          if(throwable != null) {
+            flight.result.completeExceptionally(throwable);
+          } else {
+            flight.result.complete(json);
+          }
+        });
+      }
+      return result;
+    }
+  }
+
+  private static @Nullable String key(final EndpointRequest endpoint, final Request request, final int flags) {
+    final boolean idempotent = request.method().equals("GET") || (flags & IDEMPOTENT) != 0;
+    if(!idempotent || endpoint.timeout() != null) {
+      return null;
+    }
+    final StringBuilder key = new StringBuilder()
+      .append(flags).append(' ')
+      .append(endpoint.priority()).append(' ')
+      .append(request.method()).append(' ')
+      .append(request.url());
+    final @Nullable RequestBody body = request.body();
+    if(body != null) {
+      final Buffer buffer = new Buffer();
+      try {
+        body.writeTo(buffer);
+      } catch(final IOException e) {
+        return null; // no way to tell it apart, so send it on its own
+      }
+      key.append(' ').append(buffer.readUtf8());
+    }
+    return key.toString();
+  }
+
   final CompletableFuture<Maybe<JsonElement>> json(final CompletableFuture<Response> future) {
     return future.thenCompose(response -> {
       final @Nullable ResponseBody body = response.body();
@@ -74,4 +153,49 @@ abstract class AbstractHttpClient implements HttpClient {
       return CompletableFuture.completedFuture(Maybe.just(json));
     });
   }
+
+  private static final class Flight {
+    final CompletableFuture<Maybe<JsonElement>> result = new CompletableFuture<>();
+    volatile @Nullable CompletableFuture<Response> response;
+    // guarded by this
+    private boolean led;
+    private int waiters;
+    private boolean abandoned;
+
+    synchronized boolean lead() {
+      if(this.led) {
+        return false;
+      }
+      this.led = true;
+      return true;
+    }
+
+    synchronized @Nullable CompletableFuture<Maybe<JsonElement>> join() {
+      if(this.abandoned) {
+        return null;
+      }
+      this.waiters++;
+      final CompletableFuture<Maybe<JsonElement>> result = this.result.thenApply(Function.identity());
+      result.whenComplete((json, throwable) -> {
+        if(result.isCancelled()) {
+          this.leave();
+        }
+      });
+      return result;
+    }
+
+    private void leave() {
+      final @Nullable CompletableFuture<Response> response;
+      synchronized(this) {
+        if(--this.waiters > 0 || this.result.isDone()) {
+          return;
+        }
+        this.abandoned = true;
+        response = this.response;
+      }
+      if(response != null) {
+        response.cancel(false);
+      }
+    }
+  }
 }
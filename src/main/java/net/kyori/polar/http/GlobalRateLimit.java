@@ -0,0 +1,83 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The process-wide rate limit, checked by every bucket before it sends a request.
+ *
+ * <p>The gate closes when Discord reports a global rate limit, and otherwise admits at most
+ * a configured number of requests in each one second window.</p>
+ */
+final class GlobalRateLimit {
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+  private final int requestsPerSecond;
+  private volatile long blockedUntil = System.nanoTime();
+  private long windowStart = System.nanoTime();
+  private int windowRequests;
+
+  GlobalRateLimit(final int requestsPerSecond) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
+  /**
+   * Takes a permit to send a request now, if one is available.
+   *
+   * @return {@code 0} if a permit was taken, otherwise the nanoseconds to wait before trying again
+   */
+  long acquire() {
+    final long now = System.nanoTime();
+    final long blocked = this.blockedUntil - now;
+    if(blocked > 0) {
+      return blocked;
+    }
+    if(this.requestsPerSecond <= 0) {
+      return 0;
+    }
+    synchronized(this) {
+      if(now - this.windowStart >= WINDOW) {
+        this.windowStart = now;
+        this.windowRequests = 0;
+      }
+      if(this.windowRequests < this.requestsPerSecond) {
+        this.windowRequests++;
+        return 0;
+      }
+      return this.windowStart + WINDOW - now;
+    }
+  }
+
+  /**
+   * Closes the gate after a global rate limit was hit.
+   *
+   * @param millis the milliseconds until the global limit resets
+   */
+  synchronized void block(final long millis) {
+    final long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    if(until - this.blockedUntil > 0) {
+      this.blockedUntil = until;
+    }
+  }
+}
@@ -33,6 +33,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 public interface HttpClient {
   // Flags
   int UNAUTHENTICATED = 0x01;
+  int IDEMPOTENT = 0x02; // may be merged with identical requests in flight - GET requests always are
   // Media Types
   MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
 
@@ -23,22 +23,38 @@
  */
 package net.kyori.polar.http;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonElement;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import net.kyori.mu.Composer;
 import net.kyori.mu.Maybe;
 import net.kyori.polar.PolarConfiguration;
 import net.kyori.polar.http.endpoint.EndpointRequest;
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 @Singleton
 final class ImmediateHttpClientImpl extends AbstractHttpClient implements ImmediateHttpClient {
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+    new ThreadFactoryBuilder()
+      .setNameFormat("Polar Immediate HTTP Timer - %d")
+      .setDaemon(true)
+      .build()
+  );
+
   @Inject
   private ImmediateHttpClientImpl(final PolarConfiguration configuration, final OkHttpClient httpClient) {
     super(configuration, httpClient);
@@ -46,20 +62,36 @@ final class ImmediateHttpClientImpl extends AbstractHttpClient implements Immedi
 
   @Override
   public @NonNull CompletableFuture<Maybe<JsonElement>> json(final @NonNull EndpointRequest request, final int flags) {
-    final CompletableFuture<Response> future = new CompletableFuture<>();
-    this.request(request, future, flags);
-    return this.json(future);
-  }
-
-  private void request(final @NonNull EndpointRequest request, final CompletableFuture<Response> response, final int flags) {
-    this.request(Composer.accept(new Request.Builder(), request::configure), response, flags);
+    final @Nullable Duration timeout = request.timeout();
+    return this.json(request, this.request(Composer.accept(new Request.Builder(), request::configure), flags), flags, http -> this.execute(http, timeout));
   }
 
-  private void request(final Request.@NonNull Builder request, final CompletableFuture<Response> response, final int flags) {
+  /**
+   * Sends a request on the calling thread.
+   *
+   * <p>Nothing is queued here, so a timeout covers the call alone - it is cancelled once the timeout passes.</p>
+   *
+   * @param request the request
+   * @param timeout the timeout, if any
+   * @return the response
+   */
+  private CompletableFuture<Response> execute(final Request request, final @Nullable Duration timeout) {
+    final CompletableFuture<Response> response = new CompletableFuture<>();
+    final Call call = this.httpClient.newCall(request);
+    final @Nullable ScheduledFuture<?> expiry = timeout != null ? this.timer.schedule(call::cancel, timeout.toNanos(), TimeUnit.NANOSECONDS) : null;
     try {
-      response.complete(this.httpClient.newCall(this.request(request, flags)).execute());
+      response.complete(call.execute());
     } catch(final IOException e) {
-      response.completeExceptionally(e);
+      if(expiry != null && call.isCanceled()) {
+        response.completeExceptionally(new TimeoutException("Request to " + request.url() + " timed out after " + timeout));
+      } else {
+        response.completeExceptionally(e);
+      }
+    } finally {
+      if(expiry != null) {
+        expiry.cancel(false);
+      }
     }
+    return response;
   }
 }
@@ -0,0 +1,107 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.http;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import net.kyori.polar.http.endpoint.EndpointRequest;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The queue of a rate limit bucket, with one lane per {@link EndpointRequest.Priority priority}.
+ *
+ * <p>Higher lanes are served first, but a request ages while it waits: each lane below the highest
+ * costs a request {@link #AGING} of waiting, so lower lanes are delayed rather than starved.</p>
+ */
+final class Lanes {
+  private static final long AGING = TimeUnit.SECONDS.toNanos(2);
+  private final Deque<RateLimitedHttpClientImpl.Entry>[] lanes;
+
+  @SuppressWarnings("unchecked")
+  Lanes() {
+    final EndpointRequest.Priority[] priorities = EndpointRequest.Priority.values();
+    this.lanes = new Deque[priorities.length];
+    for(int i = 0; i < priorities.length; i++) {
+      this.lanes[i] = new ConcurrentLinkedDeque<>();
+    }
+  }
+
+  boolean isEmpty() {
+    for(final Deque<RateLimitedHttpClientImpl.Entry> lane : this.lanes) {
+      if(!lane.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  void add(final RateLimitedHttpClientImpl.@NonNull Entry entry) {
+    this.lanes[entry.priority.ordinal()].add(entry);
+  }
+
+  /**
+   * Puts a request back at the head of its lane, such as after it was rate limited.
+   *
+   * @param entry the request
+   */
+  void addFirst(final RateLimitedHttpClientImpl.@NonNull Entry entry) {
+    this.lanes[entry.priority.ordinal()].addFirst(entry);
+  }
+
+  void remove(final RateLimitedHttpClientImpl.@NonNull Entry entry) {
+    this.lanes[entry.priority.ordinal()].remove(entry);
+  }
+
+  /**
+   * Takes the request to send next, discarding any abandoned on the way.
+   *
+   * @return the request, or {@code null} if there are none
+   */
+  RateLimitedHttpClientImpl.@Nullable Entry poll() {
+    while(true) {
+      final RateLimitedHttpClientImpl.@Nullable Entry entry = this.next();
+      if(entry == null || !entry.future.isDone()) {
+        return entry;
+      }
+    }
+  }
+
+  private RateLimitedHttpClientImpl.@Nullable Entry next() {
+    int next = -1;
+    long nextKey = 0;
+    for(int i = 0; i < this.lanes.length; i++) {
+      final RateLimitedHttpClientImpl.@Nullable Entry head = this.lanes[i].peek();
+      if(head != null) {
+        final long key = head.enqueued + i * AGING;
+        if(next == -1 || key - nextKey < 0) {
+          next = i;
+          nextKey = key;
+        }
+      }
+    }
+    return next == -1 ? null : this.lanes[next].poll();
+  }
+}
@@ -23,162 +23,487 @@
  */
 package net.kyori.polar.http;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import net.kyori.mu.Composer;
 import net.kyori.mu.Maybe;
 import net.kyori.mu.function.ThrowingFunction;
+import net.kyori.peppermint.Json;
 import net.kyori.polar.PolarConfiguration;
 import net.kyori.polar.http.endpoint.EndpointRequest;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import okhttp3.ResponseBody;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A http client that queues requests per rate limit bucket.
+ *
+ * <p>Requests are sent with {@link Call#enqueue(Callback)}, and a bucket waiting for its limit to reset
+ * schedules its next drain on a timer instead of blocking a thread - independent buckets never wait on each other.</p>
+ */
 @Singleton
 final class RateLimitedHttpClientImpl extends AbstractHttpClient implements RateLimitedHttpClient {
   private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitedHttpClientImpl.class);
-  private static final long OFFSET_NOT_SET = Long.MIN_VALUE;
-  private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
-    1,
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
     new ThreadFactoryBuilder()
-      .setNameFormat("Polar RateLimit HTTP Queue - %d")
+      .setNameFormat("Polar RateLimit HTTP Timer - %d")
+      .setDaemon(true)
       .build()
   );
-  private final LoadingCache<String, Bucket> buckets = CacheBuilder.newBuilder()
+  // route -> bucket, where a route is a method and an endpoint identity
+  private final LoadingCache<String, Bucket> routes = CacheBuilder.newBuilder()
     .expireAfterAccess(5, TimeUnit.MINUTES)
     .build(CacheLoader.from(Bucket::new));
-  private long offset = OFFSET_NOT_SET;
+  // bucket hash and major parameters -> bucket, learned from responses
+  private final Cache<String, Bucket> buckets = CacheBuilder.newBuilder()
+    .expireAfterAccess(5, TimeUnit.MINUTES)
+    .build();
+  private final GlobalRateLimit global;
+  private final RetryPolicy retries;
 
   @Inject
   private RateLimitedHttpClientImpl(final PolarConfiguration configuration, final OkHttpClient httpClient) {
     super(configuration, httpClient);
+    this.global = new GlobalRateLimit(configuration.globalRequestsPerSecond());
+    this.retries = new RetryPolicy(configuration);
   }
 
   @Override
   public @NonNull CompletableFuture<Maybe<JsonElement>> json(final @NonNull EndpointRequest request, final int flags) {
-    final CompletableFuture<Response> future = new CompletableFuture<>();
-    final Bucket bucket = this.buckets.getUnchecked(request.identity());
-    bucket.submit(this.request(Composer.accept(new Request.Builder(), request::configure), flags), future);
-    if(bucket.future == null) {
-      bucket.future = this.scheduler.schedule(bucket::processQueue, bucket.delay(), TimeUnit.MILLISECONDS);
+    final Request http = this.request(Composer.accept(new Request.Builder().header("X-RateLimit-Precision", "millisecond"), request::configure), flags);
+    final String route = http.method() + ' ' + request.identity();
+    return this.json(request, http, flags, ignored -> {
+      final Entry entry = new Entry(route, request.majorParameters(), request.priority(), http, flags, new CompletableFuture<>());
+      final @Nullable Duration timeout = request.timeout();
+      if(timeout != null) {
+        final ScheduledFuture<?> expiry = this.timer.schedule(() -> {
+          entry.future.completeExceptionally(new TimeoutException("Request to " + http.url() + " timed out after " + timeout));
+        }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        entry.future.whenComplete((response, throwable) -> expiry.cancel(false));
+      }
+      entry.future.whenComplete((response, throwable) -> {
+        if(throwable != null) {
+          entry.abandon();
+        }
+      });
+      this.routes.getUnchecked(route).submit(entry);
+      return entry.future;
+    });
+  }
+
+  /**
+   * Finds the bucket shared by every route that Discord reports under the same bucket hash.
+   *
+   * <p>The registration is looked up on every response reporting a hash, even from the route that owns it, so it
+   * stays alive for as long as any route sharing it sees traffic.</p>
+   *
+   * @param bucket the bucket the request was sent from
+   * @param entry the request
+   * @param hash the bucket hash, if reported
+   * @return the shared bucket, which may be {@code bucket}
+   */
+  private Bucket discover(final Bucket bucket, final Entry entry, final @Nullable String hash) {
+    if(hash == null) {
+      return bucket;
+    }
+    final String key = hash + ':' + entry.majorParameters;
+    @Nullable Bucket shared = this.buckets.getIfPresent(key);
+    if(shared == null) {
+      shared = this.buckets.asMap().putIfAbsent(key, bucket);
+    }
+    if(shared == null || shared == bucket) {
+      bucket.hash = hash;
+      return bucket;
     }
-    return this.json(future);
+    this.routes.put(entry.route, shared);
+    LOGGER.debug("Route {} shares rate limit bucket {}", entry.route, hash);
+    return shared;
   }
 
-  private void calculateOffset(final Response response) {
-    final long now = System.currentTimeMillis();
+  /**
+   * Gets the milliseconds until the bucket a response came from resets.
+   *
+   * <p>{@code X-RateLimit-Reset-After} is relative, and so immune to clock skew between us and Discord. Without it we
+   * fall back to {@code X-RateLimit-Reset}, measured against the {@code Date} of the response rather than our own clock.</p>
+   *
+   * @param response the response
+   * @return the milliseconds until the bucket resets
+   */
+  private static long resetAfter(final Response response) {
+    final @Nullable String resetAfter = response.header("X-RateLimit-Reset-After");
+    if(resetAfter != null) {
+      return (long) Math.ceil(Double.parseDouble(resetAfter) * 1000);
+    }
+    final @Nullable String reset = response.header("X-RateLimit-Reset");
     final @Nullable String date = response.header("Date");
-    if(date != null) {
-      this.offset = OffsetDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - now;
+    if(reset != null && date != null) {
+      final long now = OffsetDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+      return Math.max(0, (long) Math.ceil(Double.parseDouble(reset) * 1000) - now);
     }
+    return 0;
   }
 
   final class Bucket {
-    final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
-    ScheduledFuture<?> future;
-    volatile int rateLimitRemaining;
-    volatile long rateLimitReset;
+    // scheduling states
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1; // a drain is waiting on the timer
+    private static final int DRAINING = 2;
+    private static final int DRAINING_AGAIN = 3; // draining, and signalled since the drain began
+    private static final long AWAIT_RESPONSE = -1;
+    // retry budget, in tenths of a retry - each completed request earns a tenth, and each retry spends a whole one
+    private static final int RETRY_BUDGET = 100;
+    private static final int RETRY_COST = 10;
+    final Lanes queue = new Lanes();
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    volatile @Nullable String hash;
+    // guarded by this
+    private boolean known; // a response has told us the limit of this bucket
+    private int limit;
+    private int remaining = 1;
+    private long reset = System.nanoTime(); // a System#nanoTime deadline
+    private int inFlight;
+    private boolean refilled; // the quota was refilled since the reset deadline last moved
+    private int retryBudget = RETRY_BUDGET;
 
-    void submit(final Request request, final CompletableFuture<Response> future) {
-      this.queue.add(new Entry(request, future));
+    void submit(final Entry entry) {
+      entry.bucket = this;
+      this.queue.add(entry);
+      if(entry.future.isDone()) {
+        this.queue.remove(entry); // abandoned while we were taking it
+        return;
+      }
+      this.drain();
     }
 
-    long delay() {
-      if(this.rateLimitRemaining > 0) {
-        return 0;
+    /**
+     * Signals that this bucket may be able to send queued requests.
+     *
+     * <p>At most one thread drains a bucket at a time. A signal received while draining makes the drain run
+     * again before going idle, and a signal received while waiting on the timer is left to the timer.</p>
+     */
+    void drain() {
+      while(true) {
+        switch(this.state.get()) {
+          case IDLE:
+            if(this.state.compareAndSet(IDLE, DRAINING)) {
+              this.run();
+              return;
+            }
+            break;
+          case DRAINING:
+            if(this.state.compareAndSet(DRAINING, DRAINING_AGAIN)) {
+              return;
+            }
+            break;
+          default:
+            return;
+        }
       }
-      final long offset = RateLimitedHttpClientImpl.this.offset == OFFSET_NOT_SET ? 0 : RateLimitedHttpClientImpl.this.offset;
-      final long diff = System.currentTimeMillis() + offset;
-      return this.rateLimitReset - diff;
     }
 
-    private boolean available() {
-      return this.rateLimitRemaining > 0 || this.delay() <= 0;
+    private void wake() {
+      if(this.state.compareAndSet(SCHEDULED, DRAINING)) {
+        this.run();
+      }
     }
 
-    void processQueue() {
+    private void run() {
+      while(true) {
+        final long delay = this.dispatch();
+        if(delay > 0) {
+          this.state.set(SCHEDULED);
+          RateLimitedHttpClientImpl.this.timer.schedule(this::wake, delay, TimeUnit.NANOSECONDS);
+          return;
+        }
+        if(this.state.compareAndSet(DRAINING, IDLE)) {
+          return;
+        }
+        this.state.set(DRAINING); // we were signalled while draining
+      }
+    }
+
+    /**
+     * Sends as many queued requests as this bucket has quota for.
+     *
+     * <p>Until a response tells us the limit of this bucket, only one request is in flight at a time.</p>
+     *
+     * @return the nanoseconds to wait before draining again, or {@code 0} to wait for a signal
+     */
+    private long dispatch() {
       while(!this.queue.isEmpty()) {
-        if(!this.available()) {
+        final long delay = this.acquire();
+        if(delay == AWAIT_RESPONSE) {
+          return 0;
+        } else if(delay > 0) {
+          return delay;
+        }
+
+        final long globalDelay = RateLimitedHttpClientImpl.this.global.acquire();
+        if(globalDelay > 0) {
+          this.release();
+          return globalDelay;
+        }
+
+        final @Nullable Entry entry = this.queue.poll();
+        if(entry == null) {
+          this.release();
+          return 0;
+        }
+        this.send(entry);
+      }
+      return 0;
+    }
+
+    private synchronized long acquire() {
+      if(!this.known && this.inFlight > 0) {
+        return AWAIT_RESPONSE;
+      }
+      if(this.remaining <= 0) {
+        final long delay = this.reset - System.nanoTime();
+        if(delay > 0) {
+          return delay;
+        }
+        if(this.refilled && this.inFlight > 0) {
+          return AWAIT_RESPONSE; // the refilled window has not told us its reset deadline yet
+        }
+        // requests still in flight count against the new window
+        this.remaining = Math.max(0, (this.known ? Math.max(1, this.limit) : 1) - this.inFlight);
+        this.refilled = true;
+        if(this.remaining == 0) {
+          return AWAIT_RESPONSE;
+        }
+      }
+      this.remaining--;
+      this.inFlight++;
+      return 0;
+    }
+
+    private synchronized void release() {
+      this.remaining++;
+      this.inFlight--;
+    }
+
+    private void send(final Entry entry) {
+      final Call call = RateLimitedHttpClientImpl.this.httpClient.newCall(entry.request);
+      entry.call = call;
+      if(entry.future.isDone()) {
+        call.cancel(); // abandoned while we were taking it
+      }
+      call.enqueue(new Callback() {
+        @Override
+        public void onResponse(final Call call, final Response response) {
+          final Bucket bucket = RateLimitedHttpClientImpl.this.discover(Bucket.this, entry, response.header("X-RateLimit-Bucket"));
+          Bucket.this.completed();
           try {
-            final long delay = this.delay();
-            if(delay > 0) {
-              Thread.sleep(delay);
+            Bucket.this.processResponse(bucket, entry, response);
+          } catch(final RuntimeException e) {
+            // a body or header we cannot parse - fail the request rather than leave it, and the bucket, stranded
+            response.close();
+            entry.future.completeExceptionally(e);
+            LOGGER.warn("Could not process response {} from {}", response.code(), entry.request.url(), e);
+          } finally {
+            if(bucket != Bucket.this) {
+              Bucket.this.moveTo(bucket);
             }
-          } catch(final InterruptedException e) {
-            LOGGER.error("Encountered an interruption while sleeping in rate limit bucket", e);
+            bucket.drain();
+            Bucket.this.drain();
           }
         }
 
-        final Entry entry = this.queue.peek();
-        if(entry != null) {
-          this.processEntry(entry);
+        @Override
+        public void onFailure(final Call call, final IOException e) {
+          Bucket.this.completed();
+          if(call.isCanceled() || !Bucket.this.retry(entry)) {
+            entry.future.completeExceptionally(e);
+          } else {
+            LOGGER.debug("Retrying {} after failure", entry.request.url(), e);
+          }
+          Bucket.this.drain();
         }
-      }
-      this.future = null;
+      });
     }
 
-    private void processEntry(final Entry entry) {
-      try {
-        final Response response = RateLimitedHttpClientImpl.this.httpClient.newCall(entry.request).execute();
+    private synchronized void completed() {
+      this.inFlight--;
+    }
 
-        if(RateLimitedHttpClientImpl.this.offset == OFFSET_NOT_SET) {
-          RateLimitedHttpClientImpl.this.calculateOffset(response);
+    /**
+     * Reconciles this bucket with the rate limit reported by a response.
+     *
+     * <p>Responses to concurrent requests can arrive in any order, so the remaining quota only ever shrinks
+     * and the reset deadline only ever moves forward here - the quota is replenished once the deadline passes.</p>
+     *
+     * @param limit the limit, or {@code -1} if not reported
+     * @param remaining the remaining quota
+     * @param resetAfter the milliseconds until the bucket resets
+     */
+    synchronized void update(final int limit, final int remaining, final long resetAfter) {
+      final long reset = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(resetAfter);
+      if(limit >= 0) {
+        if(!this.known) {
+          this.remaining = remaining;
         }
+        this.known = true;
+        this.limit = limit;
+      }
+      this.remaining = Math.min(this.remaining, remaining);
+      if(reset - this.reset > 0) {
+        this.reset = reset;
+        this.refilled = false;
+      }
+    }
 
-        if(response.code() == 429) {
-          this.rateLimitRemaining = 0;
-          this.rateLimitReset = System.currentTimeMillis() + this.retryAfter(response.body());
+    private void processResponse(final Bucket bucket, final Entry entry, final Response response) {
+      if(response.code() == 429) {
+        final Maybe<JsonObject> body = this.body(response);
+        final int retryAfter = body.map(json -> Json.getInt(json, "retry_after", 0)).orDefault(0);
+        if(response.header("X-RateLimit-Global") != null || body.map(json -> Json.getBoolean(json, "global", false)).orDefault(false)) {
+          RateLimitedHttpClientImpl.this.global.block(retryAfter);
+          LOGGER.warn("Hit global rate limit, blocking all requests for {}ms", retryAfter);
         } else {
-          this.rateLimitRemaining = Integer.parseInt(response.header("X-RateLimit-Remaining", "1"));
-          this.rateLimitReset = Integer.parseInt(response.header("X-RateLimit-Reset", "0"));
-          entry.future.complete(response);
-          this.queue.remove();
+          bucket.update(-1, 0, retryAfter);
+          LOGGER.debug("Hit rate limit for {}", entry.request.url());
+        }
+        entry.call = null;
+        if(!entry.future.isDone()) {
+          this.queue.addFirst(entry);
+        }
+      } else {
+        final @Nullable String limit = response.header("X-RateLimit-Limit");
+        bucket.update(limit != null ? Integer.parseInt(limit) : -1, Integer.parseInt(response.header("X-RateLimit-Remaining", "1")), resetAfter(response));
+        if(RetryPolicy.transientError(response.code())) {
+          response.close();
+          if(this.retry(entry)) {
+            LOGGER.debug("Retrying {} after server error {}", entry.request.url(), response.code());
+          } else {
+            entry.future.completeExceptionally(new IOException("Server error " + response.code() + " from " + entry.request.url()));
+          }
+          return;
+        }
+        this.earnRetry();
+        if(!entry.future.complete(response)) {
+          response.close(); // nobody is waiting for it anymore
+        }
+      }
+    }
+
+    /**
+     * Schedules a failed request to be sent again, if the retry policy and the retry budget of this bucket allow.
+     *
+     * @param entry the request
+     * @return {@code true} if the request will be retried
+     */
+    private boolean retry(final Entry entry) {
+      final int attempt = ++entry.attempts;
+      if(entry.future.isDone() || !RateLimitedHttpClientImpl.this.retries.retryable(entry.request, entry.flags, attempt) || !this.spendRetry()) {
+        return false;
+      }
+      entry.call = null;
+      RateLimitedHttpClientImpl.this.timer.schedule(() -> {
+        final @Nullable Bucket bucket = entry.bucket;
+        if(bucket != null && !entry.future.isDone()) {
+          bucket.queue.addFirst(entry);
+          bucket.drain();
         }
-      } catch(final IOException e) {
-        entry.future.completeExceptionally(e);
+      }, RateLimitedHttpClientImpl.this.retries.delay(attempt), TimeUnit.NANOSECONDS);
+      return true;
+    }
+
+    private synchronized boolean spendRetry() {
+      if(this.retryBudget < RETRY_COST) {
+        return false;
+      }
+      this.retryBudget -= RETRY_COST;
+      return true;
+    }
+
+    private synchronized void earnRetry() {
+      if(this.retryBudget < RETRY_BUDGET) {
+        this.retryBudget++;
       }
     }
 
-    private int retryAfter(final @Nullable ResponseBody response) {
-      return Maybe.maybe(response)
+    private Maybe<JsonObject> body(final Response response) {
+      return Maybe.maybe(response.body())
         .map(ThrowingFunction.of(body -> {
           final String string = body.string();
           body.close();
           return string;
         }))
         .map(ThrowingFunction.of(PARSER::parse))
-        .map(JsonElement::getAsJsonObject)
-        .map(json -> json.getAsJsonPrimitive("retry_after").getAsInt())
-        .orDefault(0);
+        .map(JsonElement::getAsJsonObject);
+    }
+
+    /**
+     * Moves the requests queued in this bucket to the bucket it turned out to share.
+     *
+     * @param bucket the shared bucket
+     */
+    private void moveTo(final Bucket bucket) {
+      @Nullable Entry entry;
+      while((entry = this.queue.poll()) != null) {
+        bucket.submit(entry);
+      }
     }
+  }
+
+  static final class Entry {
+    final String route;
+    final String majorParameters;
+    final EndpointRequest.Priority priority;
+    final Request request;
+    final int flags;
+    final CompletableFuture<Response> future;
+    final long enqueued = System.nanoTime();
+    int attempts; // failed attempts, only touched by the bucket handling the latest attempt
+    volatile @Nullable Bucket bucket;
+    volatile @Nullable Call call; // once sent
 
-    final class Entry {
-      final Request request;
-      final CompletableFuture<Response> future;
+    Entry(final String route, final String majorParameters, final EndpointRequest.Priority priority, final Request request, final int flags, final CompletableFuture<Response> future) {
+      this.route = route;
+      this.majorParameters = majorParameters;
+      this.priority = priority;
+      this.request = request;
+      this.flags = flags;
+      this.future = future;
+    }
 
-      Entry(final Request request, final CompletableFuture<Response> future) {
-        this.request = request;
-        this.future = future;
+    /**
+     * Removes this request from its queue if it has not been sent, or cancels it if it is in flight.
+     */
+    void abandon() {
+      final @Nullable Call call = this.call;
+      if(call != null) {
+        call.cancel();
+        return;
+      }
+      final @Nullable Bucket bucket = this.bucket;
+      if(bucket != null) {
+        bucket.queue.remove(this);
       }
     }
   }
@@ -0,0 +1,99 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.http;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import net.kyori.polar.PolarConfiguration;
+import okhttp3.Request;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Decides if and when a failed request is sent again.
+ *
+ * <p>Delays grow exponentially with each attempt, up to {@link #MAX_DELAY}, and are fully jittered so that
+ * requests failing together do not retry together.</p>
+ */
+final class RetryPolicy {
+  private static final long MAX_DELAY = TimeUnit.SECONDS.toNanos(30);
+  private final int maxRetries;
+  private final long delay;
+
+  RetryPolicy(final @NonNull PolarConfiguration configuration) {
+    this(configuration.httpMaxRetries(), configuration.httpRetryDelay());
+  }
+
+  private RetryPolicy(final int maxRetries, final @NonNull Duration delay) {
+    this.maxRetries = maxRetries;
+    this.delay = delay.toNanos();
+  }
+
+  /**
+   * Tests if a request may be sent again after its {@code attempt}th attempt failed.
+   *
+   * @param request the request
+   * @param flags the flags the request was sent with
+   * @param attempt the attempt, starting at {@code 1}
+   * @return {@code true} if the request may be retried
+   */
+  boolean retryable(final @NonNull Request request, final int flags, final int attempt) {
+    return attempt <= this.maxRetries && (idempotent(request.method()) || (flags & HttpClient.IDEMPOTENT) != 0);
+  }
+
+  /**
+   * Gets the nanoseconds to wait before retrying after the {@code attempt}th attempt failed.
+   *
+   * @param attempt the attempt, starting at {@code 1}
+   * @return the delay
+   */
+  long delay(final int attempt) {
+    final int shift = Math.min(attempt - 1, 20);
+    final long ceiling = this.delay > MAX_DELAY >> shift ? MAX_DELAY : this.delay << shift;
+    return ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  /**
+   * Tests if a response status is a transient server error.
+   *
+   * @param code the status code
+   * @return {@code true} if the status is worth retrying
+   */
+  static boolean transientError(final int code) {
+    return code == 500 || code == 502 || code == 503 || code == 504;
+  }
+
+  private static boolean idempotent(final String method) {
+    switch(method) {
+      case "GET":
+      case "HEAD":
+      case "OPTIONS":
+      case "PUT":
+      case "DELETE":
+        return true;
+      default:
+        return false;
+    }
+  }
+}
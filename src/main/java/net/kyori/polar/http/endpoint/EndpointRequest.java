@@ -23,24 +23,93 @@
  */
 package net.kyori.polar.http.endpoint;
 
+import java.time.Duration;
 import java.util.function.Consumer;
 import okhttp3.Request;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public interface EndpointRequest {
   String identity();
 
+  /**
+   * Gets the values of the major parameters of this request, which split a shared rate limit bucket.
+   *
+   * @return the major parameters
+   */
+  String majorParameters();
+
+  /**
+   * Gets the priority of this request within its rate limit bucket.
+   *
+   * @return the priority
+   */
+  Priority priority();
+
+  /**
+   * Creates a copy of this request with a different priority.
+   *
+   * @param priority the priority
+   * @return the request
+   */
+  EndpointRequest priority(final Priority priority);
+
+  /**
+   * Gets how long this request may wait and run for before it is abandoned.
+   *
+   * @return the timeout, or {@code null} if this request may take as long as it needs
+   */
+  @Nullable Duration timeout();
+
+  /**
+   * Creates a copy of this request with a timeout.
+   *
+   * <p>A request still queued when its timeout passes is never sent, and one in flight is cancelled.</p>
+   *
+   * <p>A request with a timeout is never merged with identical requests in flight, so it neither imposes
+   * its deadline on nor inherits one from another caller.</p>
+   *
+   * @param timeout the timeout
+   * @return the request
+   */
+  EndpointRequest timeout(final @Nullable Duration timeout);
+
   void configure(final Request.Builder request);
+
+  /**
+   * The lanes of a rate limit bucket, from highest to lowest.
+   */
+  enum Priority {
+    /**
+     * Someone is waiting on the result, such as a reply to a command.
+     */
+    INTERACTIVE,
+    NORMAL,
+    /**
+     * Nobody is waiting on the result, such as bulk maintenance.
+     */
+    BACKGROUND;
+  }
 }
 
 final class EndpointRequestImpl implements EndpointRequest {
   private final String identity;
+  private final String majorParameters;
   private final String url;
   private final Consumer<Request.Builder> request;
+  private final Priority priority;
+  private final @Nullable Duration timeout;
+
+  EndpointRequestImpl(final String identity, final String majorParameters, final String url, final Consumer<Request.Builder> request) {
+    this(identity, majorParameters, url, request, Priority.NORMAL, null);
+  }
 
-  EndpointRequestImpl(final String identity, final String url, final Consumer<Request.Builder> request) {
+  private EndpointRequestImpl(final String identity, final String majorParameters, final String url, final Consumer<Request.Builder> request, final Priority priority, final @Nullable Duration timeout) {
     this.identity = identity;
+    this.majorParameters = majorParameters;
     this.url = url;
     this.request = request;
+    this.priority = priority;
+    this.timeout = timeout;
   }
 
   @Override
@@ -48,6 +117,31 @@ final class EndpointRequestImpl implements EndpointRequest {
     return this.identity;
   }
 
+  @Override
+  public String majorParameters() {
+    return this.majorParameters;
+  }
+
+  @Override
+  public Priority priority() {
+    return this.priority;
+  }
+
+  @Override
+  public EndpointRequest priority(final Priority priority) {
+    return new EndpointRequestImpl(this.identity, this.majorParameters, this.url, this.request, priority, this.timeout);
+  }
+
+  @Override
+  public @Nullable Duration timeout() {
+    return this.timeout;
+  }
+
+  @Override
+  public EndpointRequest timeout(final @Nullable Duration timeout) {
+    return new EndpointRequestImpl(this.identity, this.majorParameters, this.url, this.request, this.priority, timeout);
+  }
+
   @Override
   public void configure(final Request.Builder request) {
     this.request.accept(request);
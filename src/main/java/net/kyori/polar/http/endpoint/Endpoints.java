@@ -35,13 +35,13 @@ public final class Endpoints {
   private static final ParameterizedEndpoint SEND_MESSAGE = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages", "channel_id");
   private static final ParameterizedEndpoint DELETE_MESSAGE = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}", "channel_id");
   private static final ParameterizedEndpoint EDIT_MESSAGE = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}", "channel_id");
-  private static final ParameterizedEndpoint ADD_REACTION = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}/reactions/{emoji}/@me", "channel_id", "message_id");
-  private static final ParameterizedEndpoint DELETE_REACTION = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}/reactions/{emoji}/{who}", "channel_id", "message_id");
-  private static final ParameterizedEndpoint DELETE_REACTIONS = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}/reactions", "channel_id", "message_id");
+  private static final ParameterizedEndpoint ADD_REACTION = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}/reactions/{emoji}/@me", "channel_id");
+  private static final ParameterizedEndpoint DELETE_REACTION = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}/reactions/{emoji}/{who}", "channel_id");
+  private static final ParameterizedEndpoint DELETE_REACTIONS = new ParameterizedEndpoint(Polar.API_URL + "/channels/{channel_id}/messages/{message_id}/reactions", "channel_id");
 
-  private static final ParameterizedEndpoint GUILD_MEMBER_ROLE = new ParameterizedEndpoint(Polar.API_URL + "/guilds/{guild_id}/members/{user_id}/roles/{role_id}");
+  private static final ParameterizedEndpoint GUILD_MEMBER_ROLE = new ParameterizedEndpoint(Polar.API_URL + "/guilds/{guild_id}/members/{user_id}/roles/{role_id}", "guild_id");
 
-  private static final ParameterizedEndpoint EDIT_GUILD_ROLE = new ParameterizedEndpoint(Polar.API_URL + "/guilds/{guild_id}/roles/{role_id}");
+  private static final ParameterizedEndpoint EDIT_GUILD_ROLE = new ParameterizedEndpoint(Polar.API_URL + "/guilds/{guild_id}/roles/{role_id}", "guild_id");
 
   private static final SimpleEndpoint CREATE_PRIVATE_CHANNEL = new SimpleEndpoint(Polar.API_URL + "/users/@me/channels");
 
@@ -26,9 +26,11 @@ package net.kyori.polar.http.endpoint;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.ints.IntLists;
+import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import okhttp3.Request;
 
 final class ParameterizedEndpoint {
@@ -65,28 +67,32 @@ final class ParameterizedEndpoint {
   Endpoint with(final Object... args) {
     final String url = String.format(this.route, (Object[]) args);
     String identity = this.identity;
+    String major = "";
     if(this.majorParameters.size() > 0) {
       final Object[] majorParameters = new Object[this.majorParameters.size()];
       for(int i = 0, length = majorParameters.length; i < length; i++) {
         majorParameters[i] = args[this.majorParameters.getInt(i)];
       }
       identity = String.format(identity, (Object[]) majorParameters);
+      major = Arrays.stream(majorParameters).map(String::valueOf).collect(Collectors.joining(":"));
     }
-    return new ParameterizedEndpointInstance(identity, url);
+    return new ParameterizedEndpointInstance(identity, major, url);
   }
 }
 
 final class ParameterizedEndpointInstance implements Endpoint {
   private final String identity;
+  private final String majorParameters;
   private final String url;
 
-  ParameterizedEndpointInstance(final String identity, final String url) {
+  ParameterizedEndpointInstance(final String identity, final String majorParameters, final String url) {
     this.identity = identity;
+    this.majorParameters = majorParameters;
     this.url = url;
   }
 
   @Override
   public EndpointRequest request(final Consumer<Request.Builder> request) {
-    return new EndpointRequestImpl(this.identity, this.url, request);
+    return new EndpointRequestImpl(this.identity, this.majorParameters, this.url, request);
   }
 }
@@ -35,6 +35,6 @@ final class SimpleEndpoint implements Endpoint {
 
   @Override
   public EndpointRequest request(final Consumer<Request.Builder> request) {
-    return new EndpointRequestImpl(this.url, this.url, request);
+    return new EndpointRequestImpl(this.url, "", this.url, request);
   }
 }
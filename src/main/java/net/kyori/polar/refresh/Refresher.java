@@ -33,10 +33,12 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import javax.inject.Inject;
 import net.kyori.event.EventBus;
+import net.kyori.polar.util.StringPool;
 
 public abstract class Refresher<T, C extends RefreshContext<T>> {
   private final List<Entry<?>> entries = new ArrayList<>();
   protected @Inject EventBus<Object> bus;
+  protected @Inject StringPool strings;
 
   protected Refresher() {
     this.register();
@@ -48,6 +50,18 @@ public abstract class Refresher<T, C extends RefreshContext<T>> {
     this.entries.add(new ComplexEntry<>(oldValue, newValue, applier, apply));
   }
 
+  /**
+   * Registers a field that has no refresh event - the applier is left to react to the change.
+   *
+   * @param oldValue the old value getter
+   * @param newValue the new value reader
+   * @param applier the applier
+   * @param <V> the value type
+   */
+  protected final <V> void field(final Function<T, V> oldValue, final Function<JsonObject, V> newValue, final BiConsumer<T, V> applier) {
+    this.entries.add(new QuietEntry<>(oldValue, newValue, applier));
+  }
+
   protected final <V> void field(final Function<T, V> oldValue, final Function<JsonObject, V> newValue, final BiConsumer<T, V> applier, final RefreshEventFactory<C, V> event) {
     this.entries.add(new SimpleEntry<>(oldValue, newValue, applier, event));
   }
@@ -138,4 +152,14 @@ public abstract class Refresher<T, C extends RefreshContext<T>> {
       this.apply.accept(context, oldValue, newValue);
     }
   }
+
+  public class QuietEntry<V> extends Entry<V> {
+    QuietEntry(final Function<T, V> oldValue, final Function<JsonObject, V> newValue, final BiConsumer<T, V> applier) {
+      super(oldValue, newValue, applier);
+    }
+
+    @Override
+    void refresh(final C context, final V oldValue, final V newValue) {
+    }
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.snowflake;
+
+import java.time.Instant;
+import net.kyori.kassel.snowflake.Snowflake;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Conversions between Discord snowflakes and the instants they encode.
+ */
+public final class Snowflakes {
+  /**
+   * The Discord epoch, the first second of 2015, in milliseconds.
+   */
+  public static final long EPOCH = 1420070400000L;
+  private static final int TIMESTAMP_SHIFT = 22;
+
+  private Snowflakes() {
+  }
+
+  /**
+   * Gets the instant a snowflake was created at.
+   *
+   * @param id the snowflake id
+   * @return the instant
+   */
+  public static @NonNull Instant instant(final @Snowflake long id) {
+    return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH);
+  }
+
+  /**
+   * Gets the lowest snowflake that can be created at an instant.
+   *
+   * @param instant the instant
+   * @return the snowflake id
+   */
+  public static @Snowflake long lowest(final @NonNull Instant instant) {
+    return Math.max(instant.toEpochMilli() - EPOCH, 0) << TIMESTAMP_SHIFT;
+  }
+}
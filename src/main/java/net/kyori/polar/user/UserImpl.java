@@ -26,42 +26,41 @@ package net.kyori.polar.user;
 import com.google.common.base.MoreObjects;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.inject.assistedinject.Assisted;
 import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
 import net.kyori.kassel.channel.PrivateChannel;
 import net.kyori.kassel.user.User;
 import net.kyori.mu.Maybe;
 import net.kyori.peppermint.Json;
-import net.kyori.polar.client.ClientImpl;
+import net.kyori.polar.PolarContext;
+import net.kyori.polar.guild.GuildImpl;
 import net.kyori.polar.refresh.Refreshable;
 import net.kyori.polar.snowflake.SnowflakedImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class UserImpl extends SnowflakedImpl implements Refreshable, User {
-  private final UserRefresher refresher;
-  private final ClientImpl client;
+  private final PolarContext context;
   private @NonNull String username;
   private @NonNull String discriminator;
   private @Nullable String avatar;
   private boolean bot;
   private @Nullable PrivateChannel channel;
 
-  @Inject
-  private UserImpl(final UserRefresher refresher, final ClientImpl client, final @Assisted JsonObject json) {
+  private UserImpl(final PolarContext context, final JsonObject json) {
     super(Json.needLong(json, "id"));
-    this.refresher = refresher;
-    this.client = client;
-    this.username = Json.needString(json, "username");
-    this.discriminator = Json.needString(json, "discriminator");
+    this.context = context;
+    this.username = context.strings().intern(Json.needString(json, "username"));
+    this.discriminator = context.strings().intern(Json.needString(json, "discriminator"));
     this.avatar = Json.getString(json, "avatar", null);
     this.bot = Json.getBoolean(json, "bot", false);
   }
 
   @Override
   public void refresh(final JsonElement json) {
-    this.refresher.refresh(() -> this, json);
+    this.context.refresher(UserRefresher.class).refresh(() -> this, json);
   }
 
   @Override
@@ -71,6 +70,12 @@ public final class UserImpl extends SnowflakedImpl implements Refreshable, User
 
   void username(final @NonNull String username) {
     this.username = username;
+    if(!this.context.configuration().memberSearchIndex()) {
+      return; // nothing indexes usernames
+    }
+    this.context.client().guilds()
+      .map(GuildImpl.class::cast)
+      .forEach(guild -> guild.userRenamed(this));
   }
 
   @Override
@@ -101,7 +106,7 @@ public final class UserImpl extends SnowflakedImpl implements Refreshable, User
     if(this.channel != null) {
       return CompletableFuture.completedFuture(this.channel);
     }
-    return this.client.requestPrivateChannel(this);
+    return this.context.client().requestPrivateChannel(this);
   }
 
   public void channel(final PrivateChannel channel) {
@@ -120,4 +125,20 @@ public final class UserImpl extends SnowflakedImpl implements Refreshable, User
   public interface Factory {
     UserImpl create(final JsonObject json);
   }
+
+  @Singleton
+  static final class FactoryImpl implements Factory {
+    // the context depends on the client, which in turn depends on this factory
+    private final Provider<PolarContext> context;
+
+    @Inject
+    private FactoryImpl(final Provider<PolarContext> context) {
+      this.context = context;
+    }
+
+    @Override
+    public UserImpl create(final JsonObject json) {
+      return new UserImpl(this.context.get(), json);
+    }
+  }
 }
@@ -28,6 +28,6 @@ import net.kyori.violet.AbstractModule;
 public final class UserModule extends AbstractModule {
   @Override
   protected void configure() {
-    this.installFactory(UserImpl.Factory.class);
+    this.bind(UserImpl.Factory.class).to(UserImpl.FactoryImpl.class);
   }
 }
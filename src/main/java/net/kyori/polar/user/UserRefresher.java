@@ -38,7 +38,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 final class UserRefresher extends Refresher<UserImpl, RefreshContext<UserImpl>> {
   @Override
   protected void register() {
-    this.field(UserImpl::username, json -> Json.needString(json, "username"), UserImpl::username, (context, oldName, newName) -> new UserNameChangeEvent() {
+    this.field(UserImpl::username, json -> this.strings.intern(Json.needString(json, "username")), UserImpl::username, (context, oldName, newName) -> new UserNameChangeEvent() {
       @Override
       public @NonNull User user() {
         return context.target();
@@ -54,7 +54,7 @@ final class UserRefresher extends Refresher<UserImpl, RefreshContext<UserImpl>>
         return newName;
       }
     });
-    this.field(UserImpl::discriminator, json -> Json.needString(json, "discriminator"), UserImpl::discriminator, (context, oldDiscriminator, newDiscriminator) -> new UserDiscriminatorChangeEvent() {
+    this.field(UserImpl::discriminator, json -> this.strings.intern(Json.needString(json, "discriminator")), UserImpl::discriminator, (context, oldDiscriminator, newDiscriminator) -> new UserDiscriminatorChangeEvent() {
       @Override
       public @NonNull User user() {
         return context.target();
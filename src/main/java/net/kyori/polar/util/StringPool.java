@@ -0,0 +1,102 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.util;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Singleton;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A pool deduplicating low-cardinality strings, such as names and discriminators.
+ */
+@Singleton
+public final class StringPool {
+  // estimated shallow size of a String and its backing array, excluding the characters
+  private static final long STRING_OVERHEAD = 24 + 16;
+  private final Interner<String> strings = Interners.newWeakInterner();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder dedupedBytes = new LongAdder();
+
+  /**
+   * Gets the canonical instance of {@code string}.
+   *
+   * @param string the string
+   * @return the canonical string
+   */
+  public @Nullable String intern(final @Nullable String string) {
+    if(string == null) {
+      return null;
+    }
+    final String interned = this.strings.intern(string);
+    this.lookups.increment();
+    if(interned != string) {
+      this.hits.increment();
+      this.dedupedBytes.add(STRING_OVERHEAD + 2L * string.length());
+    }
+    return interned;
+  }
+
+  /**
+   * Gets the number of strings passed through this pool.
+   *
+   * @return the number of strings passed through this pool
+   */
+  public long lookups() {
+    return this.lookups.sum();
+  }
+
+  /**
+   * Gets the number of strings replaced by an existing canonical instance.
+   *
+   * @return the number of strings replaced by an existing canonical instance
+   */
+  public long hits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Gets an estimate of the total size of every string replaced by an existing canonical instance.
+   *
+   * <p>This is cumulative, not a measure of live savings - it counts strings that would have been garbage anyway,
+   * such as a refreshed name that did not change, and never goes down as canonical instances are collected.</p>
+   *
+   * @return an estimate of the number of bytes deduplicated
+   */
+  public long dedupedBytes() {
+    return this.dedupedBytes.sum();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+      .add("lookups", this.lookups())
+      .add("hits", this.hits())
+      .add("dedupedBytes", this.dedupedBytes())
+      .toString();
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of polar, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.polar.http;
+
+import com.google.gson.JsonElement;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.kyori.mu.Maybe;
+import net.kyori.polar.PolarConfiguration;
+import net.kyori.polar.http.endpoint.EndpointRequest;
+import net.kyori.polar.http.endpoint.Endpoints;
+import net.kyori.violet.AbstractModule;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hammers a single rate limit bucket from many threads, against a stubbed server enforcing the limit, to show
+ * that no request is ever stranded by the bucket's scheduling state machine.
+ */
+public class RateLimitedHttpClientImplTest {
+  private static final int THREADS = 16;
+  private static final int REQUESTS_PER_THREAD = 250;
+  private static final long TIMEOUT_SECONDS = 60;
+
+  @Test
+  public void testConcurrentSubmissionsToLimitedBucket() throws Exception {
+    final StubServer server = new StubServer(10, TimeUnit.MILLISECONDS.toNanos(5));
+    this.hammer(client(server), server);
+    assertTrue("a bucket must never have more requests in flight than its limit", server.maxConcurrent.get() <= 10);
+  }
+
+  @Test
+  public void testConcurrentSubmissionsToUnknownBucket() throws Exception {
+    // no rate limit headers at all - the bucket never learns its limit, and stays serial
+    final StubServer server = new StubServer(0, 0);
+    this.hammer(client(server), server);
+    assertEquals("an unknown bucket must never have two requests in flight", 1, server.maxConcurrent.get());
+  }
+
+  private void hammer(final HttpClient client, final StubServer server) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<CompletableFuture<Maybe<JsonElement>>> futures = new ArrayList<>();
+    final List<CompletableFuture<Void>> submitted = new ArrayList<>();
+    for(int thread = 0; thread < THREADS; thread++) {
+      final int offset = thread * REQUESTS_PER_THREAD;
+      submitted.add(CompletableFuture.runAsync(() -> {
+        try {
+          start.await();
+        } catch(final InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        for(int i = 0; i < REQUESTS_PER_THREAD; i++) {
+          final CompletableFuture<Maybe<JsonElement>> future = client.json(request(offset + i));
+          synchronized(futures) {
+            futures.add(future);
+          }
+        }
+      }, executor));
+    }
+    start.countDown();
+    CompletableFuture.allOf(submitted.toArray(new CompletableFuture<?>[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    // a stranded request never completes, and fails this
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertEquals(THREADS * REQUESTS_PER_THREAD, futures.size());
+    assertEquals(THREADS * REQUESTS_PER_THREAD, server.completed.get());
+  }
+
+  private static EndpointRequest request(final int id) {
+    // a POST, so that identical requests are never merged
+    return Endpoints.sendMessage(1L).request(builder -> builder.post(RequestBody.create(HttpClient.JSON_MEDIA_TYPE, "{\"id\":" + id + '}')));
+  }
+
+  private static HttpClient client(final StubServer server) {
+    final Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(64);
+    dispatcher.setMaxRequestsPerHost(64);
+    final OkHttpClient http = new OkHttpClient.Builder()
+      .dispatcher(dispatcher)
+      .addInterceptor(server)
+      .build();
+    final Injector injector = Guice.createInjector(new HttpModule(), new AbstractModule() {
+      @Override
+      protected void configure() {
+        this.bind(PolarConfiguration.class).toInstance(new PolarConfiguration() {
+          @Override
+          public @NonNull String token() {
+            return "Bot test";
+          }
+
+          @Override
+          public int globalRequestsPerSecond() {
+            return 0;
+          }
+        });
+        this.bind(OkHttpClient.class).toInstance(http);
+      }
+    });
+    return injector.getInstance(RateLimitedHttpClient.class);
+  }
+
+  /**
+   * Answers every call without touching the network, enforcing a fixed window rate limit like Discord does.
+   */
+  private static final class StubServer implements Interceptor {
+    private final int limit; // 0 for no rate limit headers
+    private final long window;
+    private long windowStart = System.nanoTime();
+    private int windowRequests;
+    private int concurrent;
+    final AtomicInteger maxConcurrent = new AtomicInteger();
+    final AtomicInteger completed = new AtomicInteger();
+
+    StubServer(final int limit, final long window) {
+      this.limit = limit;
+      this.window = window;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) {
+      synchronized(this) {
+        this.concurrent++;
+        this.maxConcurrent.accumulateAndGet(this.concurrent, Math::max);
+      }
+      try {
+        Thread.sleep(1); // a round trip
+      } catch(final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      final Response.Builder response = new Response.Builder()
+        .request(chain.request())
+        .protocol(Protocol.HTTP_1_1);
+      synchronized(this) {
+        this.concurrent--;
+        if(this.limit == 0) {
+          this.completed.incrementAndGet();
+          return response.code(200).message("OK").body(ResponseBody.create(HttpClient.JSON_MEDIA_TYPE, "{}")).build();
+        }
+        final long now = System.nanoTime();
+        if(now - this.windowStart >= this.window) {
+          this.windowStart = now;
+          this.windowRequests = 0;
+        }
+        final long resetAfter = this.windowStart + this.window - now;
+        final String resetAfterSeconds = String.format(Locale.ROOT, "%.3f", Math.max(resetAfter, TimeUnit.MILLISECONDS.toNanos(1)) / 1e9);
+        if(this.windowRequests >= this.limit) {
+          return response.code(429).message("Too Many Requests")
+            .header("X-RateLimit-Limit", String.valueOf(this.limit))
+            .header("X-RateLimit-Remaining", "0")
+            .header("X-RateLimit-Reset-After", resetAfterSeconds)
+            .body(ResponseBody.create(HttpClient.JSON_MEDIA_TYPE, "{\"retry_after\":" + TimeUnit.NANOSECONDS.toMillis(resetAfter) + ",\"global\":false}"))
+            .build();
+        }
+        this.windowRequests++;
+        this.completed.incrementAndGet();
+        return response.code(200).message("OK")
+          .header("X-RateLimit-Limit", String.valueOf(this.limit))
+          .header("X-RateLimit-Remaining", String.valueOf(this.limit - this.windowRequests))
+          .header("X-RateLimit-Reset-After", resetAfterSeconds)
+          .body(ResponseBody.create(HttpClient.JSON_MEDIA_TYPE, "{}"))
+          .build();
+      }
+    }
+  }
+}